@@ -0,0 +1,97 @@
+package CSudoku.benchmark;
+
+import CSudoku.board.CSudokuBoard;
+import CSudoku.board.Move;
+import CSudoku.player.Player;
+import CSudoku.player.ai.AIPlayer;
+import CSudoku.player.ai.IACompetitionStrategy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fixed positions shared by the benchmarks.
+ * <p>
+ * A position is either a grid size ({@code "4"}, {@code "9"}, {@code "16"}), giving an empty board without
+ * constraints, or the name of a grid of {@code src/main/resources} such as {@code "csudoku9_1.txt"}, read from
+ * the classpath so that the benchmarks do not depend on the working directory.
+ * </p>
+ */
+final class BenchmarkPositions {
+
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * Builds a new board for a position.
+     *
+     * @param position A grid size or the name of a grid resource.
+     * @return A new board, which the caller may modify.
+     */
+    static CSudokuBoard load(String position) {
+        if (position.chars().allMatch(Character::isDigit)) {
+            return new CSudokuBoard(Integer.parseInt(position));
+        }
+        try (InputStream in = BenchmarkPositions.class.getResourceAsStream("/" + position)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown position: " + position);
+            }
+            Path file = Files.createTempFile("csudoku", ".txt");
+            try {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+                return new CSudokuBoard(file.toString());
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds 9x9 midgame positions by filling cells with random valid values, with fixed seeds, alternately from
+     * {@code csudoku9_1.txt} and from an empty grid.
+     *
+     * @param nPositions The number of positions.
+     * @param filled     The number of cells to fill in each position.
+     * @return The positions.
+     */
+    static List<CSudokuBoard> midgame(int nPositions, int filled) {
+        List<CSudokuBoard> positions = new ArrayList<>();
+        Player filler = new AIPlayer(new IACompetitionStrategy(1));
+        for (int i = 0; i < nPositions; i++) {
+            CSudokuBoard board = i % 2 == 0 ? load("csudoku9_1.txt") : new CSudokuBoard(9);
+            SplittableRandom random = new SplittableRandom(i);
+            int n = board.getSize();
+            for (int attempts = 0; countFilled(board) < filled && attempts < 100 * n * n; attempts++) {
+                int row = random.nextInt(n);
+                int col = random.nextInt(n);
+                int value = random.nextInt(n) + 1;
+                if (filler.isValidMove(board, new Move(row, col, value))) {
+                    board.setValue(row, col, value);
+                }
+            }
+            positions.add(board);
+        }
+        return positions;
+    }
+
+    private static int countFilled(CSudokuBoard board) {
+        int count = 0;
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int col = 0; col < board.getSize(); col++) {
+                if (!board.isCellEmpty(row, col)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
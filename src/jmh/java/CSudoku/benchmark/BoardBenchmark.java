@@ -0,0 +1,210 @@
+package CSudoku.benchmark;
+
+import CSudoku.board.CSudokuBoard;
+import CSudoku.board.Move;
+import CSudoku.board.PuzzleFormat;
+import CSudoku.player.ai.AIPlayer;
+import CSudoku.player.ai.AlphaBetaMoveStrategy;
+import CSudoku.player.ai.EvaluatedSimulatedBoard;
+import CSudoku.player.automate.AutomatePlayer;
+import CSudoku.player.automate.FirstValidMoveStrategy;
+import CSudoku.referee.Referee;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the board operations on the hot paths of the searches: move validation, move generation, copies
+ * of the game and simulated boards, playing a move with its evaluation, the end-of-game test of the referee, and
+ * the parsing of the position in the text and binary puzzle formats.
+ * <p>
+ * Every benchmark works on a fixed position (see {@link BenchmarkPositions}) and leaves it unchanged, so that
+ * successive invocations measure the same work.
+ * </p>
+ * Usage: {@code java -jar target/benchmarks.jar BoardBenchmark -p position=9,csudoku9_1.txt}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"4", "9", "16", "csudoku4_1.txt", "csudoku9_1.txt"})
+    public String position;
+
+    private CSudokuBoard board;
+    private AIPlayer player;
+    private EvaluatedSimulatedBoard simulatedBoard;
+    private Referee referee;
+    private Move[] candidates; // Every (row, column, value), legal or not
+    private Move[] legalMoves;
+    private int next;
+    private byte[] textPuzzle; // The position in the text format
+    private byte[] binaryPuzzle; // The position in the binary format
+    private CSudokuBoard parsedBoard; // Board the puzzles are parsed into
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = BenchmarkPositions.load(position);
+        player = new AIPlayer(new AlphaBetaMoveStrategy());
+        simulatedBoard = new EvaluatedSimulatedBoard(board, player);
+        referee = new Referee(new AutomatePlayer(new FirstValidMoveStrategy()),
+                new AutomatePlayer(new FirstValidMoveStrategy()), BenchmarkPositions.load(position));
+
+        int n = board.getSize();
+        candidates = new Move[n * n * n];
+        List<Move> legal = new ArrayList<>();
+        int k = 0;
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                for (int value = 1; value <= n; value++) {
+                    Move move = new Move(row, col, value);
+                    candidates[k++] = move;
+                    if (player.isValidMove(board, move)) {
+                        legal.add(move);
+                    }
+                }
+            }
+        }
+        legalMoves = legal.toArray(new Move[0]);
+        textPuzzle = PuzzleFormat.toTextBytes(board);
+        binaryPuzzle = PuzzleFormat.toBinary(board);
+        parsedBoard = new CSudokuBoard(n);
+    }
+
+    /**
+     * Validates every (row, column, value) of the board with {@code Player.isValidMove}.
+     *
+     * @return The number of valid moves.
+     */
+    @Benchmark
+    public int isValidMove() {
+        int count = 0;
+        for (Move move : candidates) {
+            if (player.isValidMove(board, move)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Generates the moves of every cell with {@code Player.coupsPossibles}.
+     *
+     * @param blackhole Consumes the generated lists.
+     */
+    @Benchmark
+    public void coupsPossibles(Blackhole blackhole) {
+        int n = board.getSize();
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                blackhole.consume(player.coupsPossibles(board, row, col));
+            }
+        }
+    }
+
+    /**
+     * Copies the simulated board, as the searches did for every child before moves were undone in place.
+     *
+     * @return The copy.
+     */
+    @Benchmark
+    public EvaluatedSimulatedBoard copyConstructor() {
+        return new EvaluatedSimulatedBoard(simulatedBoard);
+    }
+
+    /**
+     * Copies the game board with {@code new CSudokuBoard(CSudokuBoard)}, the bulk copy under every snapshot.
+     *
+     * @return The copy.
+     */
+    @Benchmark
+    public CSudokuBoard copyBoard() {
+        return new CSudokuBoard(board);
+    }
+
+    /**
+     * Copies the game board into a new simulated board, as every search does before exploring the position.
+     *
+     * @return The copy.
+     */
+    @Benchmark
+    public EvaluatedSimulatedBoard snapshot() {
+        return new EvaluatedSimulatedBoard(board, player);
+    }
+
+    /**
+     * Plays one legal move with {@code EvaluatedSimulatedBoard.setValue}, through {@code applyMove}, and takes
+     * it back. The legal moves of the position are played in turn.
+     *
+     * @return The evaluation after the move.
+     */
+    @Benchmark
+    public int setValue() {
+        return playAndUndo(false);
+    }
+
+    /**
+     * Same as {@link #setValue()} with the full evaluation of the competition AI (mobility and almost filled
+     * regions).
+     *
+     * @return The evaluation after the move.
+     */
+    @Benchmark
+    public int setValueIa() {
+        return playAndUndo(true);
+    }
+
+    private int playAndUndo(boolean ia) {
+        if (legalMoves.length == 0) {
+            return 0;
+        }
+        Move move = legalMoves[next];
+        next = next + 1 == legalMoves.length ? 0 : next + 1;
+        simulatedBoard.applyMove(move, true, ia);
+        int eval = simulatedBoard.getEval();
+        simulatedBoard.undoMove();
+        return eval;
+    }
+
+    /**
+     * Parses the position in the text format, as {@code CSudokuBoard.fromFile} does once the file is read.
+     *
+     * @return The parsed board.
+     * @throws IOException Never, the puzzle being valid.
+     */
+    @Benchmark
+    public CSudokuBoard parseText() throws IOException {
+        PuzzleFormat.read(textPuzzle, parsedBoard);
+        return parsedBoard;
+    }
+
+    /**
+     * Decodes the position in the binary format.
+     *
+     * @return The decoded board.
+     * @throws IOException Never, the puzzle being valid.
+     */
+    @Benchmark
+    public CSudokuBoard parseBinary() throws IOException {
+        PuzzleFormat.read(binaryPuzzle, parsedBoard);
+        return parsedBoard;
+    }
+
+    /**
+     * Asks the referee whether the game is over, which tests whether a legal move remains
+     * ({@code Referee.isOutOfMoves}, private, is reached through {@code isGameOver}).
+     *
+     * @return Whether the game is over.
+     */
+    @Benchmark
+    public boolean refereeIsGameOver() {
+        return referee.isGameOver();
+    }
+}
@@ -0,0 +1,64 @@
+package CSudoku.benchmark;
+
+import CSudoku.player.ai.AIPlayer;
+import CSudoku.player.ai.AlphaBetaMoveStrategy;
+import CSudoku.player.ai.EvaluatedSimulatedBoard;
+import CSudoku.player.ai.MinimaxMoveStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the recursive search kernels, the strategy and its board being reused by every invocation.
+ * <p>
+ * Unlike {@link SearchBenchmark}, nothing is created per invocation, so that the allocation rate reported by
+ * {@code -prof gc} is the one of the search itself, which should be close to zero bytes per operation.
+ * </p>
+ * Usage: {@code java -jar target/benchmarks.jar KernelBenchmark -prof gc}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelBenchmark {
+
+    private static final int DEPTH = 3;
+
+    @Param({"4", "csudoku4_1.txt", "csudoku9_1.txt"})
+    public String position;
+
+    private EvaluatedSimulatedBoard board;
+    private AIPlayer player;
+    private MinimaxMoveStrategy minimax;
+    private AlphaBetaMoveStrategy alphaBeta;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        minimax = new MinimaxMoveStrategy();
+        alphaBeta = new AlphaBetaMoveStrategy();
+        player = new AIPlayer(alphaBeta);
+        board = new EvaluatedSimulatedBoard(BenchmarkPositions.load(position), player);
+    }
+
+    /**
+     * Searches the position with Minimax at a fixed depth.
+     *
+     * @return The value of the position.
+     */
+    @Benchmark
+    public int minimax() {
+        return minimax.minimax(board, DEPTH, true, player).bestValue;
+    }
+
+    /**
+     * Searches the position with Alpha-Beta at a fixed depth.
+     *
+     * @return The value of the position.
+     */
+    @Benchmark
+    public int alphaBeta() {
+        return alphaBeta.alphaBeta(board, DEPTH, Integer.MIN_VALUE, Integer.MAX_VALUE, true, player).bestValue;
+    }
+}
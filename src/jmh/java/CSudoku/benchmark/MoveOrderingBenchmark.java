@@ -0,0 +1,89 @@
+package CSudoku.benchmark;
+
+import CSudoku.board.CSudokuBoard;
+import CSudoku.player.ai.AIPlayer;
+import CSudoku.player.ai.AlphaBetaMoveStrategy;
+import CSudoku.player.ai.EvaluatedSimulatedBoard;
+import CSudoku.player.ai.IACompetitionStrategy;
+
+import java.util.List;
+
+/**
+ * Measures the nodes saved by the move ordering, as counted by
+ * {@link CSudoku.observers.AlphaBetaPruningObserver#getNodeCount()}, at increasing depths.
+ * <p>
+ * Every midgame position of {@link BenchmarkPositions#midgame(int, int)} is searched from scratch by AlphaBeta
+ * at each depth, and by IACompetition with iterative deepening up to each depth, the way it plays with a time
+ * budget (its transposition table then provides the move of the previous iteration). Each search is run with
+ * the move ordering and again without it, keeping the moves in the order of generation, and the node counts of
+ * the two runs are compared depth by depth.
+ * </p>
+ * It is a plain program rather than a JMH benchmark, as the result is a node count. Usage, after
+ * {@code mvn -P benchmarks package -DskipTests}:
+ * {@code java -cp target/benchmarks.jar CSudoku.benchmark.MoveOrderingBenchmark [positions] [filled cells] [depth]}
+ */
+public class MoveOrderingBenchmark {
+
+    public static void main(String[] args) {
+        int nPositions = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int filled = args.length > 1 ? Integer.parseInt(args[1]) : 45;
+        int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+        List<CSudokuBoard> positions = BenchmarkPositions.midgame(nPositions, filled);
+
+        System.out.println(positions.size() + " positions 9x9 avec " + filled + " cases remplies, noeuds avec / sans"
+                + " ordonnancement");
+        for (int depth = 2; depth <= maxDepth; depth++) {
+            long alphaBetaOrdered = alphaBetaNodes(positions, depth, true);
+            long alphaBetaUnordered = alphaBetaNodes(positions, depth, false);
+            long iaOrdered = iaNodes(positions, depth, true);
+            long iaUnordered = iaNodes(positions, depth, false);
+            System.out.printf("profondeur %d : AlphaBeta %d / %d (x%.1f), IACompetition %d / %d (x%.1f)%n", depth,
+                    alphaBetaOrdered, alphaBetaUnordered, (double) alphaBetaUnordered / alphaBetaOrdered,
+                    iaOrdered, iaUnordered, (double) iaUnordered / iaOrdered);
+        }
+    }
+
+    /**
+     * Searches every position from scratch with AlphaBeta.
+     *
+     * @param positions    The positions to search.
+     * @param depth        The search depth.
+     * @param moveOrdering {@code false} to search the moves in the order of generation.
+     * @return The total number of nodes.
+     */
+    private static long alphaBetaNodes(List<CSudokuBoard> positions, int depth, boolean moveOrdering) {
+        long nodes = 0;
+        for (CSudokuBoard position : positions) {
+            AlphaBetaMoveStrategy alphaBeta = new AlphaBetaMoveStrategy();
+            alphaBeta.setMoveOrdering(moveOrdering);
+            AIPlayer player = new AIPlayer(alphaBeta);
+            alphaBeta.alphaBeta(new EvaluatedSimulatedBoard(position, player), depth, Integer.MIN_VALUE,
+                    Integer.MAX_VALUE, true, player);
+            nodes += alphaBeta.getObserver().getNodeCount();
+        }
+        return nodes;
+    }
+
+    /**
+     * Searches every position with IACompetition, by iterative deepening up to the depth.
+     *
+     * @param positions    The positions to search.
+     * @param depth        The depth of the last iteration.
+     * @param moveOrdering {@code false} to search the moves in the order of generation.
+     * @return The total number of nodes of all the iterations.
+     */
+    private static long iaNodes(List<CSudokuBoard> positions, int depth, boolean moveOrdering) {
+        long nodes = 0;
+        for (CSudokuBoard position : positions) {
+            IACompetitionStrategy ia = new IACompetitionStrategy(IACompetitionStrategy.DEFAULT_TT_SIZE_MB, 0, 1);
+            ia.setMoveOrdering(moveOrdering);
+            AIPlayer player = new AIPlayer(ia);
+            for (int iteration = 2; iteration <= depth; iteration++) {
+                ia.iacompet(new EvaluatedSimulatedBoard(position, player), iteration, Integer.MIN_VALUE,
+                        Integer.MAX_VALUE, true, player);
+            }
+            nodes += ia.getObserver().getNodeCount();
+        }
+        return nodes;
+    }
+}
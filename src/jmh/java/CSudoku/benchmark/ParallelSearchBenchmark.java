@@ -0,0 +1,71 @@
+package CSudoku.benchmark;
+
+import CSudoku.board.CSudokuBoard;
+import CSudoku.board.Move;
+import CSudoku.player.ai.AIPlayer;
+import CSudoku.player.ai.IACompetitionStrategy;
+
+/**
+ * Compares the sequential and the parallel search of {@link IACompetitionStrategy} on the positions of a game.
+ * <p>
+ * For each position, the speedup is the sequential time divided by the parallel time, and the search overhead
+ * is the number of extra nodes visited by the parallel search, both read from the
+ * {@link CSudoku.observers.AlphaBetaPruningObserver} of the strategies.
+ * </p>
+ * It is a plain program rather than a JMH benchmark, as it reports node counts along with the times. Usage, after
+ * {@code mvn -P benchmarks package -DskipTests}:
+ * {@code java -cp target/benchmarks.jar CSudoku.benchmark.ParallelSearchBenchmark [grid file] [threads] [moves]},
+ * the grid defaulting to {@code csudoku9_1.txt} of the resources.
+ */
+public class ParallelSearchBenchmark {
+
+    public static void main(String[] args) {
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int nMoves = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        IACompetitionStrategy sequential = new IACompetitionStrategy(IACompetitionStrategy.DEFAULT_TT_SIZE_MB, 0, 1);
+        IACompetitionStrategy parallel = new IACompetitionStrategy(IACompetitionStrategy.DEFAULT_TT_SIZE_MB, 0, threads);
+        AIPlayer sequentialPlayer = new AIPlayer(sequential);
+        AIPlayer parallelPlayer = new AIPlayer(parallel);
+        CSudokuBoard board = args.length > 0 ? new CSudokuBoard(args[0]) : BenchmarkPositions.load("csudoku9_1.txt");
+
+        long totalSequentialTime = 0;
+        long totalParallelTime = 0;
+        long totalSequentialNodes = 0;
+        long totalParallelNodes = 0;
+        System.out.println("Recherche sur " + threads + " threads");
+        for (int i = 0; i < nMoves; i++) {
+            long start = System.nanoTime();
+            Move move = sequentialPlayer.getMove(board);
+            long sequentialTime = System.nanoTime() - start;
+            int sequentialNodes = sequential.getObserver().getNodeCount();
+
+            start = System.nanoTime();
+            Move parallelMove = parallelPlayer.getMove(board);
+            long parallelTime = System.nanoTime() - start;
+            int parallelNodes = parallel.getObserver().getNodeCount();
+
+            totalSequentialTime += sequentialTime;
+            totalParallelTime += parallelTime;
+            totalSequentialNodes += sequentialNodes;
+            totalParallelNodes += parallelNodes;
+            System.out.printf("coup %d : speedup %.2f, surcoût %.1f%% (%d / %d noeuds)%s%n", i + 1,
+                    (double) sequentialTime / parallelTime,
+                    100.0 * (parallelNodes - sequentialNodes) / Math.max(sequentialNodes, 1),
+                    parallelNodes, sequentialNodes,
+                    sameMove(move, parallelMove) ? "" : ", coup différent");
+            if (move == null) {
+                break;
+            }
+            board.setValue(move.getRow(), move.getCol(), move.getValue());
+            board.switchSideToMove();
+        }
+        System.out.printf("Total : speedup %.2f, surcoût %.1f%%%n",
+                (double) totalSequentialTime / Math.max(totalParallelTime, 1),
+                100.0 * (totalParallelNodes - totalSequentialNodes) / Math.max(totalSequentialNodes, 1));
+    }
+
+    private static boolean sameMove(Move a, Move b) {
+        return a == null ? b == null : b != null && a.pack() == b.pack();
+    }
+}
@@ -0,0 +1,84 @@
+package CSudoku.benchmark;
+
+import CSudoku.board.CSudokuBoard;
+import CSudoku.board.Move;
+import CSudoku.player.MoveStrategy;
+import CSudoku.player.ai.AIPlayer;
+import CSudoku.player.ai.AlphaBetaMoveStrategy;
+import CSudoku.player.ai.IACompetitionStrategy;
+import CSudoku.player.ai.MCTSMoveStrategy;
+import CSudoku.player.ai.MinimaxMoveStrategy;
+import CSudoku.player.student.StudentAI_theoutliertaskers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the first move chosen by every search strategy on fixed positions.
+ * <p>
+ * The searches are deterministic: Minimax and AlphaBeta use their fixed depth, IACompetition its depth without
+ * time budget nor exact endgame, and MCTS a fixed number of playouts on one thread. Every invocation gets a new
+ * strategy, so that the transposition tables and the move ordering do not carry over from one invocation to
+ * the next. Minimax on the empty 16x16 board takes tens of seconds per move; exclude it with {@code -p} when
+ * comparing the other strategies.
+ * </p>
+ * Usage: {@code java -jar target/benchmarks.jar SearchBenchmark -p strategy=alphabeta -p position=csudoku9_1.txt}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int MCTS_PLAYOUTS = 2000;
+
+    @Param({"minimax", "alphabeta", "iacompetition", "mcts", "student"})
+    public String strategy;
+
+    @Param({"4", "9", "16", "csudoku4_1.txt", "csudoku9_1.txt"})
+    public String position;
+
+    private CSudokuBoard board;
+    private AIPlayer player;
+
+    @Setup(Level.Trial)
+    public void setUpBoard() {
+        board = BenchmarkPositions.load(position);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpStrategy() {
+        player = new AIPlayer(createStrategy(strategy));
+    }
+
+    /**
+     * Searches the first move of the position.
+     *
+     * @return The chosen move.
+     */
+    @Benchmark
+    public Move selectMove() {
+        return player.getMove(board);
+    }
+
+    private static MoveStrategy createStrategy(String name) {
+        switch (name) {
+            case "minimax":
+                return new MinimaxMoveStrategy();
+            case "alphabeta":
+                return new AlphaBetaMoveStrategy();
+            case "iacompetition":
+                IACompetitionStrategy iaCompetition = new IACompetitionStrategy();
+                iaCompetition.setEndgameEmptyCells(0);
+                return iaCompetition;
+            case "mcts":
+                return new MCTSMoveStrategy(0, MCTS_PLAYOUTS, 1);
+            case "student":
+                return new StudentAI_theoutliertaskers();
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+}
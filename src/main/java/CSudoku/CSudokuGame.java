@@ -3,6 +3,7 @@ package CSudoku;
 import CSudoku.player.Player;
 import CSudoku.player.ai.AIPlayer;
 import CSudoku.player.ai.AlphaBetaMoveStrategy;
+import CSudoku.player.ai.MCTSMoveStrategy;
 import CSudoku.player.ai.MinimaxMoveStrategy;
 import CSudoku.player.ai.IACompetitionStrategy;
 import CSudoku.player.automate.FirstValidMoveStrategy;
@@ -38,8 +39,7 @@ CSudokuGame {
         player1 = p1;
         player2 = p2;
         currentPlayer = player1;
-        referee = Referee.getInstance();
-        referee.init(player1, player2, board);
+        referee = new Referee(player1, player2, board);
     }
 
     public void printStats(Stats j, int i) {
@@ -173,11 +173,18 @@ CSudokuGame {
         Options options = new Options();
 
         options.addOption(new Option("g", "grid-size", true, "Size of the board (e.g., 4, 9, 16, etc.)"));
-        options.addOption(new Option("p1", "player1", true, "Player 1: (1: human, 2: Random No Validation, 3: Random, 4: First valid, 5: Minimax, 6: AlphaBeta, 7: IA Raphael & Baptiste)"));
-        options.addOption(new Option("p2", "player2", true, "Player 2: (1: human, 2: Random No Validation, 3: Random, 4: First valid, 5: Minimax, 6: AlphaBeta, 7: IA Raphael & Baptiste)"));
+        options.addOption(new Option("p1", "player1", true, "Player 1: (1: human, 2: Random No Validation, 3: Random, 4: First valid, 5: Minimax, 6: AlphaBeta, 7: IA Raphael & Baptiste, 8: Student AI, 9: MCTS)"));
+        options.addOption(new Option("p2", "player2", true, "Player 2: (1: human, 2: Random No Validation, 3: Random, 4: First valid, 5: Minimax, 6: AlphaBeta, 7: IA Raphael & Baptiste, 8: Student AI, 9: MCTS)"));
         options.addOption(new Option("f", "file", true, "Path to a pre-filled grid in .txt format"));
         // Sert à afficher les statistiques de temps et visites des noeuds
         options.addOption(new Option("s", "stats", false, "Display time stats"));
+        // Budget de temps par coup de l'IA Raphael & Baptiste (recherche itérative)
+        options.addOption(new Option("t", "time-budget", true, "Time budget per move in milliseconds for players 7 (default: fixed depth) and 9 (default: 1000)"));
+        options.addOption(new Option("po", "playouts", true, "Maximum number of playouts per move for player 9 (default: no limit)"));
+        // Nombre de threads de recherche des IA AlphaBeta et Raphael & Baptiste
+        options.addOption(new Option("j", "threads", true, "Number of search threads for players 6, 7 and 9 (default: 1)"));
+        options.addOption(new Option("eg", "endgame", true, "Empty cells from which player 7 solves the endgame exactly, if it has at most 16 legal moves (default: 14, 0 to disable)"));
+        options.addOption(new Option("lm", "lazy-margin", true, "Largest mobility bonus assumed by player 7 to skip it at the leaves (default: exact bound)"));
 
         CommandLineParser parser = new DefaultParser();
         HelpFormatter formatter = new HelpFormatter();
@@ -212,6 +219,7 @@ CSudokuGame {
 
         // Handle AI or automate player case with different strategies
         int aiStrategy = Integer.parseInt(playerType);
+        int threads = cmd.hasOption("j") ? Integer.parseInt(cmd.getOptionValue("j")) : 1;
 
         return switch (aiStrategy) {
             case 2 -> // Random No Validation
@@ -223,11 +231,24 @@ CSudokuGame {
             case 5 -> // Minimax
                     new AIPlayer(new MinimaxMoveStrategy());
             case 6 -> // AlphaBeta
-                    new AIPlayer(new AlphaBetaMoveStrategy());
-            case 7 -> // IA Raphael & Baptiste
-                    new AIPlayer(new IACompetitionStrategy());
+                    new AIPlayer(new AlphaBetaMoveStrategy(threads));
+            case 7 -> { // IA Raphael & Baptiste
+                IACompetitionStrategy strategy = new IACompetitionStrategy(IACompetitionStrategy.DEFAULT_TT_SIZE_MB,
+                        cmd.hasOption("t") ? Long.parseLong(cmd.getOptionValue("t")) : 0, threads);
+                if (cmd.hasOption("eg")) {
+                    strategy.setEndgameEmptyCells(Integer.parseInt(cmd.getOptionValue("eg")));
+                }
+                if (cmd.hasOption("lm")) {
+                    strategy.setLazyEvalMargin(Integer.parseInt(cmd.getOptionValue("lm")));
+                }
+                yield new AIPlayer(strategy);
+            }
             case 8 -> // IA Raphael & Baptiste
                     new AIPlayer(new StudentAI_theoutliertaskers());
+            case 9 -> // Monte Carlo Tree Search
+                    new AIPlayer(new MCTSMoveStrategy(
+                            cmd.hasOption("t") ? Long.parseLong(cmd.getOptionValue("t")) : MCTSMoveStrategy.DEFAULT_TIME_BUDGET_MS,
+                            cmd.hasOption("po") ? Integer.parseInt(cmd.getOptionValue("po")) : 0, threads));
             default -> new HumanPlayer();  // Default to human player if an invalid option is given
         };
     }
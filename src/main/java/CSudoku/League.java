@@ -0,0 +1,337 @@
+package CSudoku;
+
+import CSudoku.player.Player;
+import CSudoku.player.ai.IACompetitionStrategy.Stats;
+import org.apache.commons.cli.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Round-robin league between the players known by {@link SudokuSimulation}.
+ * <p>
+ * Every pair of strategies plays {@code -it} games on every grid size with each strategy moving first, so that
+ * both colours are played equally. The games run on a work-stealing pool, each one with its own board and
+ * referee. The AI players are reused by each thread and reset before every game, and the random players are
+ * seeded from the index of the game: the results do not depend on the number of threads.
+ * </p>
+ * <p>
+ * The league then prints an Elo table and the throughput of every engine, in games and nodes per second of its
+ * own thinking time. The ratings are the maximum likelihood Bradley-Terry ratings of all the games (a tie
+ * counting as half a win), each pair being given one virtual tie so that an engine winning all its games keeps
+ * a finite rating. Unlike incremental Elo updates, they do not depend on the order of the games.
+ * </p>
+ * Usage: {@code League -l 3,4,6,7 -g 4,9 -it 2 -par 8 -seed 1}
+ */
+public class League {
+
+    private static final double INITIAL_ELO = 1500;
+    private static final int RATING_ITERATIONS = 10000;
+
+    /**
+     * A game of the schedule.
+     */
+    private static class Game {
+        final int first; // Index of the engine moving first
+        final int second;
+        final int size;
+
+        Game(int first, int second, int size) {
+            this.first = first;
+            this.second = second;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The result of a game.
+     */
+    private static class Result {
+        final int winner; // 0 if a tie, 1 if the first player won, 2 if the second player won
+        final Stats statsFirst;
+        final Stats statsSecond;
+
+        Result(int winner, Stats statsFirst, Stats statsSecond) {
+            this.winner = winner;
+            this.statsFirst = statsFirst;
+            this.statsSecond = statsSecond;
+        }
+    }
+
+    /**
+     * Totals of an engine over the league.
+     */
+    private static class Engine {
+        final int type;
+        final String name;
+        int games;
+        int wins;
+        int ties;
+        int losses;
+        int moves;
+        long nodes;
+        double time; // Thinking time, in seconds
+        double elo = INITIAL_ELO;
+
+        Engine(int type) {
+            this.type = type;
+            this.name = SudokuSimulation.playerStr(type);
+        }
+    }
+
+    public static void main(String[] args) {
+        Options options = new Options();
+        options.addOption(new Option("l", "strategies", true, "Comma-separated players of the league, numbered as in SudokuSimulation (default: 2,3,4,5,6,7,8,9)"));
+        options.addOption(new Option("g", "grid-sizes", true, "Comma-separated grid sizes (default: 4,9)"));
+        options.addOption(new Option("it", "iterations", true, "Games per pairing, grid size and colour (default: 2)"));
+        options.addOption(new Option("par", "parallel", true, "Number of games played at the same time (default: number of processors)"));
+        options.addOption(new Option("seed", "seed", true, "Seed of the random players (default: 0)"));
+        options.addOption(new Option("t", "time-budget", true, "Time budget per move in milliseconds for players 7 (default: fixed depth) and 9 (default: 1000)"));
+        options.addOption(new Option("po", "playouts", true, "Maximum number of playouts per move for player 9 (default: no limit)"));
+        options.addOption(new Option("j", "threads", true, "Number of search threads for players 6, 7 and 9 (default: 1)"));
+        options.addOption(new Option("eg", "endgame", true, "Empty cells from which player 7 solves the endgame exactly, if it has at most 16 legal moves (default: 14, 0 to disable)"));
+        options.addOption(new Option("lm", "lazy-margin", true, "Largest mobility bonus assumed by player 7 to skip it at the leaves (default: exact bound)"));
+
+        CommandLineParser parser = new DefaultParser();
+        HelpFormatter formatter = new HelpFormatter();
+        CommandLine cmd;
+        try {
+            cmd = parser.parse(options, args);
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+            formatter.printHelp("League", options);
+            System.exit(1);
+            return;
+        }
+
+        int[] types = parseList(cmd.getOptionValue("l", "2,3,4,5,6,7,8,9"));
+        int[] sizes = parseList(cmd.getOptionValue("g", "4,9"));
+        int iterations = Integer.parseInt(cmd.getOptionValue("it", "2"));
+        int parallel = cmd.hasOption("par") ? Math.max(1, Integer.parseInt(cmd.getOptionValue("par")))
+                : Runtime.getRuntime().availableProcessors();
+        long seed = Long.parseLong(cmd.getOptionValue("seed", "0"));
+
+        Engine[] engines = new Engine[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == 1) {
+                System.out.println("Les joueurs humains ne peuvent pas participer à la ligue");
+                System.exit(1);
+            }
+            engines[i] = new Engine(types[i]);
+        }
+        List<Game> schedule = schedule(engines.length, sizes, iterations);
+        System.out.println("Ligue : " + engines.length + " strategies, " + schedule.size() + " parties, "
+                + parallel + " thread(s)");
+
+        long startTime = System.nanoTime();
+        Result[] results = play(schedule, engines, cmd, seed, parallel);
+        double duree = (System.nanoTime() - startTime) / 1000000000.0;
+
+        for (int i = 0; i < schedule.size(); i++) {
+            record(engines[schedule.get(i).first], results[i].statsFirst, results[i].winner, 1);
+            record(engines[schedule.get(i).second], results[i].statsSecond, results[i].winner, 2);
+        }
+        computeRatings(engines, schedule, results);
+        printTable(engines, schedule.size(), duree);
+    }
+
+    /**
+     * Builds the schedule: every pair of engines, on every grid size, with both colours.
+     *
+     * @param nEngines   The number of engines.
+     * @param sizes      The grid sizes.
+     * @param iterations The number of games per pair, grid size and colour.
+     * @return The games, in a fixed order.
+     */
+    private static List<Game> schedule(int nEngines, int[] sizes, int iterations) {
+        List<Game> games = new ArrayList<>();
+        for (int size : sizes) {
+            for (int a = 0; a < nEngines; a++) {
+                for (int b = a + 1; b < nEngines; b++) {
+                    for (int k = 0; k < iterations; k++) {
+                        games.add(new Game(a, b, size));
+                        games.add(new Game(b, a, size));
+                    }
+                }
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Plays the games of the schedule on a work-stealing pool.
+     *
+     * @param schedule The games.
+     * @param engines  The engines.
+     * @param cmd      The command line, for the options of the strategies.
+     * @param seed     The seed of the league.
+     * @param parallel The number of threads.
+     * @return The results, in the order of the schedule.
+     */
+    private static Result[] play(List<Game> schedule, Engine[] engines, CommandLine cmd, long seed, int parallel) {
+        ExecutorService pool = Executors.newWorkStealingPool(parallel);
+        List<Future<Result>> futures = new ArrayList<>(schedule.size());
+        for (int i = 0; i < schedule.size(); i++) {
+            Game game = schedule.get(i);
+            long gameSeed = seed + 2L * i;
+            futures.add(pool.submit(() -> {
+                Player first = SudokuSimulation.playerForGame(engines[game.first].type, cmd, gameSeed, 0);
+                Player second = SudokuSimulation.playerForGame(engines[game.second].type, cmd, gameSeed + 1, 1);
+                SudokuSimulation simulation = new SudokuSimulation(game.size, first, second, null);
+                Stats statsFirst = new Stats();
+                Stats statsSecond = new Stats();
+                int winner = simulation.play(game.size, statsFirst, statsSecond);
+                return new Result(winner, statsFirst, statsSecond);
+            }));
+        }
+        Result[] results = new Result[schedule.size()];
+        try {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = futures.get(i).get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Adds a game to the totals of an engine.
+     *
+     * @param engine The engine.
+     * @param stats  The statistics of its moves.
+     * @param winner The result of the game.
+     * @param player 1 if the engine moved first, 2 otherwise.
+     */
+    private static void record(Engine engine, Stats stats, int winner, int player) {
+        engine.games++;
+        if (winner == 0) {
+            engine.ties++;
+        } else if (winner == player) {
+            engine.wins++;
+        } else {
+            engine.losses++;
+        }
+        engine.moves += stats.total_coups;
+        engine.nodes += stats.total_noeuds;
+        engine.time += stats.total_temps;
+    }
+
+    /**
+     * Computes the Elo ratings of the engines by maximum likelihood, with the minorization-maximization
+     * iterations of the Bradley-Terry model. The mean rating is {@link #INITIAL_ELO}.
+     *
+     * @param engines  The engines, whose ratings are set.
+     * @param schedule The games.
+     * @param results  The results of the games.
+     */
+    private static void computeRatings(Engine[] engines, List<Game> schedule, Result[] results) {
+        int n = engines.length;
+        double[][] played = new double[n][n];
+        double[] score = new double[n];
+        // Une égalité fictive par paire, pour garder une note finie à un moteur qui gagne toutes ses parties
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                if (a != b) {
+                    played[a][b] = 1;
+                    score[a] += 0.5;
+                }
+            }
+        }
+        for (int i = 0; i < schedule.size(); i++) {
+            Game game = schedule.get(i);
+            played[game.first][game.second]++;
+            played[game.second][game.first]++;
+            switch (results[i].winner) {
+                case 0 -> {
+                    score[game.first] += 0.5;
+                    score[game.second] += 0.5;
+                }
+                case 1 -> score[game.first]++;
+                default -> score[game.second]++;
+            }
+        }
+
+        double[] gamma = new double[n];
+        Arrays.fill(gamma, 1.0);
+        for (int iteration = 0; iteration < RATING_ITERATIONS; iteration++) {
+            double change = 0;
+            double logSum = 0;
+            double[] next = new double[n];
+            for (int a = 0; a < n; a++) {
+                double denominator = 0;
+                for (int b = 0; b < n; b++) {
+                    if (b != a) {
+                        denominator += played[a][b] / (gamma[a] + gamma[b]);
+                    }
+                }
+                next[a] = denominator > 0 ? score[a] / denominator : gamma[a];
+                logSum += Math.log(next[a]);
+            }
+            double mean = Math.exp(logSum / n);
+            for (int a = 0; a < n; a++) {
+                next[a] /= mean;
+                change = Math.max(change, Math.abs(Math.log(next[a] / gamma[a])));
+            }
+            gamma = next;
+            if (change < 1e-9) {
+                break;
+            }
+        }
+        for (int a = 0; a < n; a++) {
+            engines[a].elo = INITIAL_ELO + 400 * Math.log10(gamma[a]);
+        }
+    }
+
+    /**
+     * Prints the engines sorted by rating, with their results and throughput.
+     *
+     * @param engines The engines.
+     * @param nGames  The number of games of the league.
+     * @param duree   The duration of the league, in seconds.
+     */
+    private static void printTable(Engine[] engines, int nGames, double duree) {
+        Engine[] sorted = engines.clone();
+        Arrays.sort(sorted, (a, b) -> Double.compare(b.elo, a.elo));
+        System.out.printf("%d parties en %.1f secondes (%.2f parties/s)%n", nGames, duree, nGames / duree);
+        System.out.printf("%-4s %-24s %6s %7s %5s %5s %5s %7s %11s %12s%n", "Rang", "Strategie", "Elo", "Parties",
+                "V", "N", "D", "Score", "Parties/s", "Noeuds/s");
+        for (int i = 0; i < sorted.length; i++) {
+            Engine e = sorted[i];
+            double scorePercent = e.games == 0 ? 0 : 100.0 * (e.wins + 0.5 * e.ties) / e.games;
+            System.out.printf("%-4d %-24s %6.0f %7d %5d %5d %5d %6.1f%% %11s %12s%n", i + 1, e.type + " " + e.name,
+                    e.elo, e.games, e.wins, e.ties, e.losses, scorePercent, rate(e.games, e.time),
+                    rate(e.nodes, e.time));
+        }
+    }
+
+    /**
+     * Formats a number of events per second of thinking time.
+     *
+     * @param count The number of events.
+     * @param time  The thinking time, in seconds.
+     * @return The rate, or "-" if the time is too small to be measured.
+     */
+    private static String rate(double count, double time) {
+        return time > 1e-6 ? String.format("%.1f", count / time) : "-";
+    }
+
+    private static int[] parseList(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+}
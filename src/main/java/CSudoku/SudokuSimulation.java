@@ -5,16 +5,29 @@ import CSudoku.board.Move;
 import CSudoku.player.Player;
 import CSudoku.player.ai.AIPlayer;
 import CSudoku.player.ai.AlphaBetaMoveStrategy;
+import CSudoku.player.ai.IACompetitionStrategy;
+import CSudoku.player.ai.IACompetitionStrategy.Return;
+import CSudoku.player.ai.IACompetitionStrategy.Stats;
+import CSudoku.player.ai.MCTSMoveStrategy;
 import CSudoku.player.ai.MinimaxMoveStrategy;
 import CSudoku.player.automate.AutomatePlayer;
 import CSudoku.player.automate.FirstValidMoveStrategy;
 import CSudoku.player.automate.RandomMoveNoValidationStrategy;
 import CSudoku.player.automate.RandomMoveStrategy;
 import CSudoku.player.human.HumanPlayer;
+import CSudoku.player.student.StudentAI_theoutliertaskers;
 import CSudoku.referee.Referee;
 import org.apache.commons.cli.*;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class SudokuSimulation {
     private CSudokuBoard board;
@@ -23,6 +36,10 @@ public class SudokuSimulation {
     private Player currentPlayer;
     private Referee referee;
     private  int size;
+    // Deux joueurs qui préfèrent tous les deux la pénalité ne jouent plus jamais : la partie est alors arrêtée
+    private static final int MAX_SKIPPED_TURNS = 1000;
+    // Joueurs réutilisés d'une partie à l'autre par chaque thread, indexés par 2 * numéro + place
+    private static final ThreadLocal<Map<Integer, Player>> REUSED_PLAYERS = ThreadLocal.withInitial(HashMap::new);
 
     public static String playerStr(int i){
         return switch (i) {
@@ -33,6 +50,8 @@ public class SudokuSimulation {
             case 5 -> "Minimax";
             case 6 -> "Alpha Beta";
             case 7 -> "IA Raphael et Baptiste";
+            case 8 -> "Student AI";
+            case 9 -> "MCTS";
             default -> "";
         };
     }
@@ -46,8 +65,7 @@ public class SudokuSimulation {
         player1 = p1;
         player2 = p2;
         currentPlayer = player1;
-        referee = Referee.getInstance();
-        referee.init(player1, player2, board);
+        referee = new Referee(player1, player2, board);
     }
 
     // Helper method to display player type and strategy
@@ -67,10 +85,22 @@ public class SudokuSimulation {
      * 0 if a tie 1 if player 1 2 if player 2
      */
     public int play(int boardSize) {
+        return play(boardSize, null, null);
+    }
+
+    /**
+     * Plays a new game, adding the statistics of the moves of each player to the given ones.
+     *
+     * @param boardSize    The size of the board.
+     * @param statsPlayer1 The statistics of the first player, or {@code null} not to collect them.
+     * @param statsPlayer2 The statistics of the second player, or {@code null} not to collect them.
+     * @return 0 if a tie, 1 if player 1 wins, 2 if player 2 wins.
+     */
+    public int play(int boardSize, Stats statsPlayer1, Stats statsPlayer2) {
         board = new CSudokuBoard(boardSize);
-        referee = Referee.getInstance();
-        referee.init(player1, player2, board);
-        while (!referee.isGameOver()) {
+        referee = new Referee(player1, player2, board);
+        int skippedTurns = 0;
+        while (!referee.isGameOver() && skippedTurns < MAX_SKIPPED_TURNS) {
 
 
 
@@ -80,14 +110,25 @@ public class SudokuSimulation {
                 continue;
             }
 
-            Move move = currentPlayer.getMove(board);
+            Move move;
+            if (statsPlayer1 != null) {
+                Return r = currentPlayer.getMove2(board);
+                move = r == null ? null : r.move;
+                if (r != null) {
+                    (currentPlayer == player1 ? statsPlayer1 : statsPlayer2).merge(r.stats);
+                }
+            } else {
+                move = currentPlayer.getMove(board);
+            }
 
             if (move != null && referee.isValidMove(move)) {
                 referee.applyMove(move);
                 referee.addPoints(currentPlayer, move);
+                skippedTurns = 0;
             } else {
 
                 referee.applyPenalty(currentPlayer);
+                skippedTurns++;
             }
 
             currentPlayer = (currentPlayer == player1) ? player2 : player1;
@@ -122,19 +163,21 @@ public class SudokuSimulation {
         Options options = new Options();
 
         options.addOption(new Option("g", "grid-size", true, "Size of the board (e.g., 4, 9, 16, etc.)"));
-        options.addOption(new Option("p1", "player1", true, "Player 1: (1: human, 2: Random No Validation, 3: Random, 4: First valid, 5: Minimax, 6: AlphaBeta)"));
-        options.addOption(new Option("p2", "player2", true, "Player 2: (1: human, 2: Random No Validation, 3: Random, 4: First valid, 5: Minimax, 6: AlphaBeta)"));
+        options.addOption(new Option("p1", "player1", true, "Player 1: (1: human, 2: Random No Validation, 3: Random, 4: First valid, 5: Minimax, 6: AlphaBeta, 7: IA Raphael & Baptiste, 8: Student AI, 9: MCTS)"));
+        options.addOption(new Option("p2", "player2", true, "Player 2: (1: human, 2: Random No Validation, 3: Random, 4: First valid, 5: Minimax, 6: AlphaBeta, 7: IA Raphael & Baptiste, 8: Student AI, 9: MCTS)"));
         options.addOption(new Option("f", "file", true, "Path to a pre-filled grid in .txt format"));
 
         options.addOption(new Option("it" , "iterations",true, "Describes how many games must be simulated."));
-
-        int winPlayer1 = 0;
-        int winPLayer2 = 0;
-        int ties = 0;
-
-
-
-
+        options.addOption(new Option("t", "time-budget", true, "Time budget per move in milliseconds for players 7 (default: fixed depth) and 9 (default: 1000)"));
+        options.addOption(new Option("po", "playouts", true, "Maximum number of playouts per move for player 9 (default: no limit)"));
+        options.addOption(new Option("j", "threads", true, "Number of search threads for players 6, 7 and 9 (default: 1)"));
+        options.addOption(new Option("eg", "endgame", true, "Empty cells from which player 7 solves the endgame exactly, if it has at most 16 legal moves (default: 14, 0 to disable)"));
+        options.addOption(new Option("lm", "lazy-margin", true, "Largest mobility bonus assumed by player 7 to skip it at the leaves (default: exact bound)"));
+        // Parties jouées en parallèle, chacune avec ses propres joueurs et son propre arbitre
+        options.addOption(new Option("par", "parallel", true, "Number of games played at the same time (default: 1)"));
+        options.addOption(new Option("vt", "virtual-threads", false, "Play every game in its own virtual thread, for human or remote players (Java 21+, otherwise falls back to --parallel threads)"));
+        options.addOption(new Option("seed", "seed", true, "Seed of the random players, from which every game derives its own seeds, so that the results do not depend on --parallel"));
+        options.addOption(new Option("s", "stats", false, "Display time stats"));
 
         CommandLineParser parser = new DefaultParser();
         HelpFormatter formatter = new HelpFormatter();
@@ -153,7 +196,9 @@ public class SudokuSimulation {
 
         int nIter = cmd.hasOption("it") ? Integer.parseInt(cmd.getOptionValue("it")) : 100;
 
-
+        int parallel = cmd.hasOption("par") ? Math.max(1, Integer.parseInt(cmd.getOptionValue("par"))) : 1;
+        Long seed = cmd.hasOption("seed") ? Long.parseLong(cmd.getOptionValue("seed")) : null;
+        boolean stats = cmd.hasOption("s");
 
 
         String strP1 = playerStr(Integer.parseInt(cmd.getOptionValue("p1")));
@@ -161,58 +206,227 @@ public class SudokuSimulation {
 
         String prefilledGridPath = cmd.getOptionValue("f");
 
-        Player p1 = configurePlayer(cmd, "p1");
-        Player p2 = configurePlayer(cmd, "p2");
-
-        SudokuSimulation game = new SudokuSimulation(gridSize, p1, p2, prefilledGridPath);
+        Results results = new Results();
+        long startTime = System.nanoTime();
+        ExecutorService executor = null;
+        if (cmd.hasOption("vt")) {
+            executor = newVirtualThreadExecutor();
+            if (executor == null) {
+                System.out.println("Threads virtuels indisponibles, utilisation de " + parallel + " thread(s)");
+            }
+        }
+        if (executor == null && parallel > 1) {
+            executor = Executors.newFixedThreadPool(parallel);
+        }
 
-        int d;
-        for (int i = 0; i < nIter; i++){
-            d = game.play(gridSize);
-            if (d == 0){ties++;}
-            else{
-                if (d == 1){winPlayer1++;}
-                else{winPLayer2++;}
+        if (executor == null) {
+            for (int i = 0; i < nIter; i++) {
+                playGame(cmd, gridSize, prefilledGridPath, seed, i, stats, results);
+            }
+        } else {
+            List<Future<?>> games = new ArrayList<>(nIter);
+            for (int i = 0; i < nIter; i++) {
+                int game = i;
+                games.add(executor.submit(() -> playGame(cmd, gridSize, prefilledGridPath, seed, game, stats, results)));
+            }
+            try {
+                for (Future<?> game : games) {
+                    game.get();
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                executor.shutdownNow();
             }
         }
+        double duree = (System.nanoTime() - startTime) / 1000000000.0;
+
+        int winPlayer1 = results.winsPlayer1;
+        int winPLayer2 = results.winsPlayer2;
+        int ties = results.ties;
 
         BigDecimal bd = BigDecimal.valueOf(100.0*(double) winPlayer1 / (double) nIter);
         BigDecimal bd2 =  BigDecimal.valueOf(100.0*(double) winPLayer2 / (double) nIter);
         BigDecimal rounded1 = bd.setScale(3, RoundingMode.HALF_UP);
         BigDecimal rounded2 = bd2.setScale(3, RoundingMode.HALF_UP);
-        double pourcentage1 = Math.round(  (double)winPlayer1 / (double)nIter  );
-        double pourcentage2 = Math.round((double)winPLayer2 / (double)nIter);
 
 
         System.out.println("Simulation avec "+nIter+" iterations sur une grille de taille "+gridSize);
         System.out.println("Victoires Joueur 1 "+strP1+" : "+ winPlayer1 + " - "+ rounded1 + "%");
         System.out.println("Victoires Joueur 2 : "+strP2+" : " + winPLayer2+ " - "+ rounded2 + "%");
         System.out.println("Egalites : " + ties);
+        System.out.println("Duree : " + duree + " secondes");
+        if (stats) {
+            printStats(results.statsPlayer1, 1);
+            printStats(results.statsPlayer2, 2);
+        }
+
+    }
 
+    /**
+     * Plays one game of a simulation, and adds its result to the totals.
+     *
+     * @param cmd               The command line, describing the players.
+     * @param gridSize          The size of the board.
+     * @param prefilledGridPath The path of a prefilled grid, or {@code null}.
+     * @param seed              The seed of the simulation, or {@code null} for unpredictable random players.
+     * @param game              The index of the game, from 0.
+     * @param stats             {@code true} to collect the statistics of the moves.
+     * @param results           The totals of the simulation.
+     */
+    private static void playGame(CommandLine cmd, int gridSize, String prefilledGridPath, Long seed, int game,
+                                 boolean stats, Results results) {
+        // Deux graines par partie, une par joueur : le résultat ne dépend pas de l'ordre des parties
+        Player p1 = configurePlayer(cmd, "p1", seed == null ? null : seed + 2L * game, 0);
+        Player p2 = configurePlayer(cmd, "p2", seed == null ? null : seed + 2L * game + 1, 1);
+        SudokuSimulation simulation = new SudokuSimulation(gridSize, p1, p2, prefilledGridPath);
+        Stats statsPlayer1 = stats ? new Stats() : null;
+        Stats statsPlayer2 = stats ? new Stats() : null;
+        int d = simulation.play(gridSize, statsPlayer1, statsPlayer2);
+        results.add(d, statsPlayer1, statsPlayer2);
+    }
+
+    /**
+     * Creates an executor running every task in a new virtual thread, looked up by reflection so that the
+     * project still builds with Java 17.
+     *
+     * @return The executor, or {@code null} if virtual threads are not available.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
     }
 
-    private static Player configurePlayer(CommandLine cmd, String playerOption) {
+    private static void printStats(Stats j, int i) {
+        int coups = Math.max(j.total_coups, 1);
+        System.out.println("\nStastistiques du joueur"+i+": ");
+        System.out.println("Total de temps: "+j.total_temps+"secondes");
+        System.out.println("Moyenne de temps: "+j.total_temps/coups+"secondes");
+        System.out.println("Maximum de temps: "+j.max_temps+"secondes");
+        System.out.println("Minimum de temps: "+j.min_temps+"secondes");
+        System.out.println("Total de noeuds visités: "+j.total_noeuds);
+        System.out.println("Moyenne de noeuds visités: "+j.total_noeuds/coups);
+        System.out.println("Maximum de noeuds visités: "+j.max_noeuds);
+        System.out.println("Minimum de noeuds visités: "+j.min_noeuds);
+    }
+
+    /**
+     * Totals of a simulation. The games running in parallel add their results under the lock of the object.
+     */
+    private static class Results {
+        private int winsPlayer1;
+        private int winsPlayer2;
+        private int ties;
+        private final Stats statsPlayer1 = new Stats();
+        private final Stats statsPlayer2 = new Stats();
+
+        /**
+         * Adds the result of a game.
+         *
+         * @param result       0 if a tie, 1 if player 1 won, 2 if player 2 won.
+         * @param statsPlayer1 The statistics of the first player during the game, or {@code null}.
+         * @param statsPlayer2 The statistics of the second player during the game, or {@code null}.
+         */
+        synchronized void add(int result, Stats statsPlayer1, Stats statsPlayer2) {
+            if (result == 0) {
+                ties++;
+            } else if (result == 1) {
+                winsPlayer1++;
+            } else {
+                winsPlayer2++;
+            }
+            if (statsPlayer1 != null) {
+                this.statsPlayer1.merge(statsPlayer1);
+                this.statsPlayer2.merge(statsPlayer2);
+            }
+        }
+    }
+
+    private static Player configurePlayer(CommandLine cmd, String playerOption, Long seed, int slot) {
         String playerType = cmd.hasOption(playerOption) ? cmd.getOptionValue(playerOption) : "1"; // Default to "1" (human)
+        return playerForGame(Integer.parseInt(playerType), cmd, seed, slot);
+    }
 
+    /**
+     * Retrieves a player for a new game.
+     * <p>
+     * The players that do not depend on the seed (first valid move and the AIs) are created once per thread and
+     * reused from one game to the next, after {@link CSudoku.player.MoveStrategy#newGame()}: a simulation of
+     * thousands of games then allocates the transposition tables of a player only once per thread. The other
+     * players are created for every game.
+     * </p>
+     *
+     * @param aiStrategy The number of the player, as given to {@code -p1} and {@code -p2}.
+     * @param cmd        The command line, for the options of the strategies.
+     * @param seed       The seed of a random player, or {@code null} for an unpredictable one.
+     * @param slot       0 for the first player of the game, 1 for the second, so that two players of the same
+     *                   number are distinct.
+     * @return The player, ready for a new game.
+     */
+    static Player playerForGame(int aiStrategy, CommandLine cmd, Long seed, int slot) {
+        if (aiStrategy < 4 || aiStrategy > 9) {
+            return createPlayer(aiStrategy, cmd, seed);
+        }
+        Player player = REUSED_PLAYERS.get().computeIfAbsent(2 * aiStrategy + slot, k -> createPlayer(aiStrategy, cmd, seed));
+        if (player instanceof AIPlayer) {
+            ((AIPlayer) player).getMoveStrategy().newGame();
+        }
+        return player;
+    }
+
+    /**
+     * Creates a player from its number on the command line.
+     *
+     * @param aiStrategy The number of the player, as given to {@code -p1} and {@code -p2}.
+     * @param cmd        The command line, for the options of the strategies ({@code -t}, {@code -po}, {@code -j},
+     *                   {@code -eg}).
+     * @param seed       The seed of a random player, or {@code null} for an unpredictable one.
+     * @return The player, a human one if the number is unknown.
+     */
+    static Player createPlayer(int aiStrategy, CommandLine cmd, Long seed) {
         // Handle human player case
-        if ("1".equals(playerType)) {
+        if (aiStrategy == 1) {
             return new HumanPlayer();
         }
 
         // Handle AI or automate player case with different strategies
-        int aiStrategy = Integer.parseInt(playerType);
+        int threads = cmd.hasOption("j") ? Integer.parseInt(cmd.getOptionValue("j")) : 1;
 
         return switch (aiStrategy) {
             case 2 -> // Random No Validation
-                    new AutomatePlayer(new RandomMoveNoValidationStrategy());
+                    new AutomatePlayer(seed == null ? new RandomMoveNoValidationStrategy()
+                            : new RandomMoveNoValidationStrategy(seed));
             case 3 -> // Random
-                    new AutomatePlayer(new RandomMoveStrategy());
+                    new AutomatePlayer(seed == null ? new RandomMoveStrategy() : new RandomMoveStrategy(seed));
             case 4 -> // First Valid
                     new AutomatePlayer(new FirstValidMoveStrategy());
             case 5 -> // Minimax
                     new AIPlayer(new MinimaxMoveStrategy());
             case 6 -> // AlphaBeta
-                    new AIPlayer(new AlphaBetaMoveStrategy());
+                    new AIPlayer(new AlphaBetaMoveStrategy(threads));
+            case 7 -> { // IA Raphael & Baptiste
+                IACompetitionStrategy strategy = new IACompetitionStrategy(IACompetitionStrategy.DEFAULT_TT_SIZE_MB,
+                        cmd.hasOption("t") ? Long.parseLong(cmd.getOptionValue("t")) : 0, threads);
+                if (cmd.hasOption("eg")) {
+                    strategy.setEndgameEmptyCells(Integer.parseInt(cmd.getOptionValue("eg")));
+                }
+                if (cmd.hasOption("lm")) {
+                    strategy.setLazyEvalMargin(Integer.parseInt(cmd.getOptionValue("lm")));
+                }
+                yield new AIPlayer(strategy);
+            }
+            case 8 -> // IA Raphael & Baptiste
+                    new AIPlayer(new StudentAI_theoutliertaskers());
+            case 9 -> // Monte Carlo Tree Search
+                    new AIPlayer(new MCTSMoveStrategy(
+                            cmd.hasOption("t") ? Long.parseLong(cmd.getOptionValue("t")) : MCTSMoveStrategy.DEFAULT_TIME_BUDGET_MS,
+                            cmd.hasOption("po") ? Integer.parseInt(cmd.getOptionValue("po")) : 0, threads));
             default -> new HumanPlayer();  // Default to human player if an invalid option is given
         };
     }
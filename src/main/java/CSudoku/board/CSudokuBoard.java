@@ -1,9 +1,8 @@
 package CSudoku.board;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Arrays;
 
@@ -11,9 +10,23 @@ import java.util.Arrays;
  * Represents a Sudoku board, with methods to initialize, print, and manage constraints between cells.
  */
 public class CSudokuBoard {
-    public int[][] grid;
+    public static final int UP = 1; // Consecutive constraint with the cell above
+    public static final int DOWN = 2; // Consecutive constraint with the cell below
+    public static final int LEFT = 4; // Consecutive constraint with the cell on the left
+    public static final int RIGHT = 8; // Consecutive constraint with the cell on the right
+
+    private byte[] cells; // Value of each cell, indexed by row * size + col, 0 for an empty cell
     private int size;
-    private List<Constraint> constraints; // List of adjacency constraints (Consecutive)
+    private ConstraintTopology topology; // Consecutive constraints, shared with the copies of the board
+    private byte[] constraintDirections; // Directions of the topology, kept here for the hot paths
+    private GridGeometry geometry; // Subgrids, peers and neighbours of the cells, shared by the boards of this size
+    private int fullMask; // Bit (v - 1) set for every value v in 1..size
+    private int[] rowMasks; // Values already used in each row
+    private int[] colMasks; // Values already used in each column
+    private int[] boxMasks; // Values already used in each subgrid
+    private ZobristKeys zobristKeys; // Keys used to hash the positions of this size
+    private long hash; // Zobrist hash of the current position
+    private boolean secondPlayerToMove; // Side to move, included in the hash
 
     /**
      * Constructs a new Sudoku board with the specified size.
@@ -22,19 +35,13 @@ public class CSudokuBoard {
      */
     public CSudokuBoard(int size) {
         this.size = size;
-        this.grid = new int[size][size];
-        this.constraints = new ArrayList<>();
+        this.cells = new byte[size * size];
+        this.topology = ConstraintTopology.empty(size);
+        this.constraintDirections = topology.directions;
+        initCandidateMasks();
+        initHash();
     }
 
-    /**
-     * Returns the list of the possibles values you can put at (i,j)
-     * @param i the row
-     * @param j the column
-     * @return the list of the possibles values you can put at (i,j)
-     */
-
-
-
     /**
      * Constructs a new Sudoku board by loading a prefilled grid from a file.
      *
@@ -44,6 +51,27 @@ public class CSudokuBoard {
         fromFile(prefilledGridPath);
     }
 
+    /**
+     * Constructs a copy of a board: its values, constraints, hash and side to move. The arrays are copied in bulk,
+     * without replaying the values one cell at a time, and the constraints are shared.
+     *
+     * @param board The board to copy.
+     */
+    public CSudokuBoard(CSudokuBoard board) {
+        this.size = board.size;
+        this.cells = board.cells.clone();
+        this.topology = board.topology;
+        this.constraintDirections = board.constraintDirections;
+        this.geometry = board.geometry;
+        this.fullMask = board.fullMask;
+        this.rowMasks = board.rowMasks.clone();
+        this.colMasks = board.colMasks.clone();
+        this.boxMasks = board.boxMasks.clone();
+        this.zobristKeys = board.zobristKeys;
+        this.hash = board.hash;
+        this.secondPlayerToMove = board.secondPlayerToMove;
+    }
+
     /**
      * Checks whether a specific cell is empty.
      *
@@ -52,7 +80,7 @@ public class CSudokuBoard {
      * @return {@code true} if the cell is empty, otherwise {@code false}.
      */
     public boolean isCellEmpty(int row, int col) {
-        return grid[row][col] == 0;
+        return cells[row * size + col] == 0;
     }
 
     /**
@@ -86,7 +114,7 @@ public class CSudokuBoard {
             for (int j = 0; j < size; j++) {
                 verticalPrint = (j < size - 1 && hasConsecutiveConstraint(i, j, i, j + 1)) ? " " : vertical;
 
-                String cellValue = grid[i][j] == 0 ? "-" : String.valueOf(grid[i][j]);
+                String cellValue = getValue(i, j) == 0 ? "-" : String.valueOf(getValue(i, j));
                 line.append(" ").append(String.format("%-" + cellWidth + "s", cellValue)).append(" ").append(verticalPrint);
             }
             System.out.println(line);
@@ -131,77 +159,101 @@ public class CSudokuBoard {
     /**
      * Retrieves the list of constraints on the board.
      *
-     * @return The list of constraints.
+     * @return The read-only list of constraints.
      */
     public List<Constraint> getConstraints() {
-        return constraints;
+        return topology.getConstraints();
     }
 
     /**
-     * Adds a new constraint to the board.
+     * Adds a new constraint to the board. The board then references a new topology, the boards sharing the
+     * previous one are unchanged.
      *
      * @param constraint The constraint to add.
      */
     public void addConstraint(Constraint constraint) {
-        constraints.add(constraint);
+        int direction = topology.directionBetween(constraint.row1, constraint.col1, constraint.row2, constraint.col2);
+        if (direction != 0) {
+            int cell1 = constraint.row1 * size + constraint.col1;
+            int cell2 = constraint.row2 * size + constraint.col2;
+            if ((constraintDirections[cell1] & direction) == 0) {
+                // Le hash identifie la contrainte par la case du haut ou de gauche
+                boolean down = direction == DOWN || direction == UP;
+                int first = Math.min(cell1, cell2);
+                hash ^= zobristKeys.constraintKey(first / size, first % size, down);
+            }
+        }
+        useTopology(topology.with(constraint));
     }
 
     /**
-     * Loads the Sudoku grid from a file.
+     * Retrieves the constraints of the board, to be shared with the boards derived from it.
      *
-     * @param fileName The file containing the board data.
-     * @return {@code true} if the board was successfully loaded, {@code false} otherwise.
+     * @return The constraint topology.
      */
-    public boolean fromFile(String fileName) {
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            String line;
+    public ConstraintTopology getTopology() {
+        return topology;
+    }
 
-            // Read the first line to get the size of the grid
-            if ((line = br.readLine()) == null) {
-                System.out.println("The file is empty.");
-                return false;
+    /**
+     * Replaces the constraints of the board with a shared topology of the same size, updating the hash.
+     *
+     * @param topology The new constraints.
+     */
+    public void setTopology(ConstraintTopology topology) {
+        if (topology.getSize() != size) {
+            throw new IllegalArgumentException("Invalid topology size");
+        }
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int changed = constraintDirections[row * size + col] ^ topology.directions[row * size + col];
+                if ((changed & RIGHT) != 0) {
+                    hash ^= zobristKeys.constraintKey(row, col, false);
+                }
+                if ((changed & DOWN) != 0) {
+                    hash ^= zobristKeys.constraintKey(row, col, true);
+                }
             }
+        }
+        useTopology(topology);
+    }
 
-            // Set the size of the board and initialize the grid
-            this.size = Integer.parseInt(line.trim());
-            this.grid = new int[size][size];
-            this.constraints = new ArrayList<>();
-
-            int row = 0;
-            while ((line = br.readLine()) != null && row < size) {
-                String[] cells = line.split("\\s+");
-                int col = 0;
-
-                // Fill the grid with values
-                for (int i = 0; i < cells.length; i++) {
-                    String cell = cells[i].trim();
-                    if (cell.equals("+") || cell.equals("-")) {
-                        if (cell.equals("+"))
-                            this.addConsecutiveConstraint(row, col, row, col - 1);
-                    } else {
-                        if (!cell.isEmpty()) {
-                            int value = Integer.parseInt(cell);
-                            this.setValue(row, col, value);
-                            col++;
-                        }
-                    }
-                }
+    /**
+     * References a topology and its direction masks.
+     *
+     * @param topology The topology.
+     */
+    private void useTopology(ConstraintTopology topology) {
+        this.topology = topology;
+        this.constraintDirections = topology.directions;
+    }
 
-                // Add consecutive constraints for the horizontal separators ("+")
-                if (row < size - 1) {
-                    String nextLine = br.readLine();
-                    if (nextLine != null) {
-                        String[] nextCells = nextLine.split("\\s+");
-                        for (int i = 0; i < nextCells.length; i++) {
-                            if (nextCells[i].equals("+")) {
-                                addConsecutiveConstraint(row, i, row + 1, i);
-                            }
-                        }
-                    }
-                }
+    /**
+     * Retrieves the directions in which a cell has a consecutive constraint with its neighbour.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return A combination of {@link #UP}, {@link #DOWN}, {@link #LEFT} and {@link #RIGHT}.
+     */
+    public int getConstraintDirections(int row, int col) {
+        return constraintDirections[row * size + col];
+    }
 
-                row++;
+    /**
+     * Loads the Sudoku grid from a file, in the text format of {@code src/main/resources} or in the binary format
+     * of {@link PuzzleFormat}.
+     *
+     * @param fileName The file containing the board data.
+     * @return {@code true} if the board was successfully loaded, {@code false} otherwise.
+     */
+    public boolean fromFile(String fileName) {
+        try {
+            byte[] data = Files.readAllBytes(Path.of(fileName));
+            if (data.length == 0) {
+                System.out.println("The file is empty.");
+                return false;
             }
+            PuzzleFormat.read(data, this);
             return true;
         } catch (IOException | NumberFormatException e) {
             System.out.println("Error reading the file or processing the data.");
@@ -210,6 +262,40 @@ public class CSudokuBoard {
         }
     }
 
+    /**
+     * Saves the Sudoku grid to a file, in a format {@link #fromFile(String)} reads back.
+     *
+     * @param fileName The file to write.
+     * @param binary   {@code true} for the binary format of {@link PuzzleFormat}, {@code false} for the text format.
+     * @return {@code true} if the board was successfully saved, {@code false} otherwise.
+     */
+    public boolean toFile(String fileName, boolean binary) {
+        try {
+            Files.write(Path.of(fileName), binary ? PuzzleFormat.toBinary(this) : PuzzleFormat.toTextBytes(this));
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error writing the file.");
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the size, values and constraints of the board with those of a parsed puzzle, the first player
+     * being to move.
+     *
+     * @param size     The size of the grid.
+     * @param cells    The values of the cells, indexed by row * size + col.
+     * @param topology The constraints.
+     */
+    void load(int size, byte[] cells, ConstraintTopology topology) {
+        this.size = size;
+        this.cells = cells;
+        useTopology(topology);
+        initCandidateMasks();
+        initHash();
+    }
+
     /**
      * Adds a consecutive constraint between two adjacent cells.
      *
@@ -219,7 +305,7 @@ public class CSudokuBoard {
      * @param col2 The column of the second cell.
      */
     public void addConsecutiveConstraint(int row1, int col1, int row2, int col2) {
-        constraints.add(new Constraint(row1, col1, row2, col2));
+        addConstraint(new Constraint(row1, col1, row2, col2));
     }
 
     /**
@@ -232,12 +318,7 @@ public class CSudokuBoard {
      * @return {@code true} if a consecutive constraint exists, {@code false} otherwise.
      */
     public boolean hasConsecutiveConstraint(int row1, int col1, int row2, int col2) {
-        for (Constraint constraint : constraints) {
-            if (constraint.affectsCells(row1, col1, row2, col2)) {
-                return true;
-            }
-        }
-        return false;
+        return topology.hasConstraint(row1, col1, row2, col2);
     }
 
     /**
@@ -256,6 +337,15 @@ public class CSudokuBoard {
         return true;
     }
 
+    /**
+     * Checks whether the board holds a grid, which is not the case when it could not be loaded from a file.
+     *
+     * @return {@code true} if the board has a grid, {@code false} otherwise.
+     */
+    public boolean isLoaded() {
+        return cells != null;
+    }
+
     /**
      * Retrieves the value of a specific cell.
      *
@@ -264,7 +354,58 @@ public class CSudokuBoard {
      * @return The value of the cell.
      */
     public int getValue(int i, int j) {
-        return grid[i][j];
+        return cells[i * size + j];
+    }
+
+    /**
+     * Retrieves the value of a cell from its index.
+     *
+     * @param cell The index of the cell, {@code row * size + col}.
+     * @return The value of the cell.
+     */
+    public int getValue(int cell) {
+        return cells[cell];
+    }
+
+    /**
+     * Retrieves a read-only copy of the grid as a two-dimensional array, for the code that still works on rows of
+     * values. The board itself stores the values in a single array: the copy is detached from it, and writing to
+     * the copy does not modify the board. Use {@link #setValue(int, int, int)}, or {@link #setGrid(int[][])} for
+     * a whole grid, to change the board.
+     *
+     * @return A copy of the values of the grid, indexed by row then column.
+     */
+    public int[][] getGrid() {
+        int[][] grid = new int[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                grid[row][col] = cells[row * size + col];
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Writes a whole grid back to the board, for the code that used to modify the array returned by
+     * {@link #getGrid()}. Every changed cell goes through {@link #setValue(int, int, int)}, so that the candidates
+     * and the hash of the board stay consistent.
+     *
+     * @param grid The values of the grid, indexed by row then column.
+     * @throws IllegalArgumentException If the grid does not have the size of the board.
+     * @deprecated Set the cells with {@link #setValue(int, int, int)}.
+     */
+    @Deprecated
+    public void setGrid(int[][] grid) {
+        if (grid.length != size || Arrays.stream(grid).anyMatch(values -> values.length != size)) {
+            throw new IllegalArgumentException("Invalid grid size");
+        }
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (grid[row][col] != cells[row * size + col]) {
+                    setValue(row, col, grid[row][col]);
+                }
+            }
+        }
     }
 
     /**
@@ -275,14 +416,196 @@ public class CSudokuBoard {
      * @param value The value to set in the cell.
      */
     public void setValue(int row, int col, int value) {
-        grid[row][col] = value;
+        int cell = row * size + col;
+        int box = geometry.box(cell);
+        int old = cells[cell];
+        if (old != 0) {
+            int bit = ~(1 << (old - 1));
+            rowMasks[row] &= bit;
+            colMasks[col] &= bit;
+            boxMasks[box] &= bit;
+        }
+        if (value != 0) {
+            int bit = 1 << (value - 1);
+            rowMasks[row] |= bit;
+            colMasks[col] |= bit;
+            boxMasks[box] |= bit;
+        }
+        hash ^= zobristKeys.cellKey(row, col, old) ^ zobristKeys.cellKey(row, col, value);
+        cells[cell] = (byte) value;
+    }
+
+    /**
+     * Retrieves the Zobrist hash of the current position (values of the grid, constraints and side to move).
+     * The hash is maintained incrementally by {@link #setValue(int, int, int)} and {@link #switchSideToMove()}.
+     *
+     * @return The 64-bit hash of the position.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Checks whether the second player is to move in the current position.
+     *
+     * @return {@code true} if the second player is to move, {@code false} otherwise.
+     */
+    public boolean isSecondPlayerToMove() {
+        return secondPlayerToMove;
+    }
+
+    /**
+     * Gives the turn to the other player, updating the hash of the position.
+     */
+    public void switchSideToMove() {
+        secondPlayerToMove = !secondPlayerToMove;
+        hash ^= zobristKeys.sideToMoveKey();
     }
 
     /**
      * Clears the board by resetting all cells to 0 (empty).
      */
     public void clear() {
-        grid = new int[size][size];
+        cells = new byte[size * size];
+        initCandidateMasks();
+        initHash();
+    }
+
+    /**
+     * Retrieves the side of a subgrid (e.g., 3 for a 9x9 grid).
+     *
+     * @return The side of a subgrid.
+     */
+    public int getBoxSize() {
+        return geometry.getBoxSize();
+    }
+
+    /**
+     * Retrieves the geometry of the grid, shared by every board of the same size.
+     *
+     * @return The geometry of the grid.
+     */
+    public GridGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Retrieves the index of the subgrid containing a cell, subgrids being numbered row by row.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The index of the subgrid.
+     */
+    public int getBoxIndex(int row, int col) {
+        return geometry.box(row * size + col);
+    }
+
+    /**
+     * Retrieves the mask of the values that can legally be placed in a cell.
+     * Bit {@code v - 1} is set when the value {@code v} is absent from the row, the column
+     * and the subgrid of the cell and is consecutive to every constrained, filled neighbour.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The mask of the candidate values, or 0 if the cell is not empty.
+     */
+    public int getCandidates(int row, int col) {
+        if (cells[row * size + col] != 0) {
+            return 0;
+        }
+        return fullMask & ~getBlockedValues(row, col);
+    }
+
+    /**
+     * Retrieves the mask of the values that cannot be placed in a cell, whether the cell is empty or not.
+     * Bit {@code v - 1} is set when the value {@code v} is already used in the row, the column or the
+     * subgrid of the cell, or is not consecutive to a constrained, filled neighbour.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The mask of the blocked values.
+     */
+    public int getBlockedValues(int row, int col) {
+        int allowed = fullMask & ~(rowMasks[row] | colMasks[col] | boxMasks[getBoxIndex(row, col)]);
+        if (allowed == 0) {
+            return fullMask;
+        }
+
+        // Keep only the values consecutive to the constrained neighbours already filled
+        int cell = row * size + col;
+        int directions = constraintDirections[cell];
+        if ((directions & DOWN) != 0 && cells[cell + size] != 0) {
+            allowed &= consecutiveMask(cells[cell + size]);
+        }
+        if ((directions & UP) != 0 && cells[cell - size] != 0) {
+            allowed &= consecutiveMask(cells[cell - size]);
+        }
+        if ((directions & RIGHT) != 0 && cells[cell + 1] != 0) {
+            allowed &= consecutiveMask(cells[cell + 1]);
+        }
+        if ((directions & LEFT) != 0 && cells[cell - 1] != 0) {
+            allowed &= consecutiveMask(cells[cell - 1]);
+        }
+        return fullMask & ~allowed;
+    }
+
+    /**
+     * (Re)computes the Zobrist hash of the position from the grid and the constraints,
+     * the first player being to move.
+     */
+    private void initHash() {
+        this.zobristKeys = ZobristKeys.forSize(size);
+        this.hash = 0;
+        this.secondPlayerToMove = false;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                hash ^= zobristKeys.cellKey(row, col, cells[row * size + col]);
+                int directions = constraintDirections[row * size + col];
+                if ((directions & RIGHT) != 0) {
+                    hash ^= zobristKeys.constraintKey(row, col, false);
+                }
+                if ((directions & DOWN) != 0) {
+                    hash ^= zobristKeys.constraintKey(row, col, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the mask of the values consecutive to the given one.
+     *
+     * @param value The value of the neighbouring cell.
+     * @return The mask of the values {@code value - 1} and {@code value + 1}.
+     */
+    private int consecutiveMask(int value) {
+        int mask = 1 << value;
+        if (value > 1) {
+            mask |= 1 << (value - 2);
+        }
+        return mask & fullMask;
+    }
+
+    /**
+     * (Re)initializes the used-value masks of the rows, columns and subgrids from the grid.
+     */
+    private void initCandidateMasks() {
+        this.geometry = GridGeometry.forSize(size);
+        int boxesPerSide = geometry.getBoxesPerSide();
+        this.fullMask = (1 << size) - 1;
+        this.rowMasks = new int[size];
+        this.colMasks = new int[size];
+        this.boxMasks = new int[boxesPerSide * boxesPerSide];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int value = cells[row * size + col];
+                if (value != 0) {
+                    int bit = 1 << (value - 1);
+                    rowMasks[row] |= bit;
+                    colMasks[col] |= bit;
+                    boxMasks[getBoxIndex(row, col)] |= bit;
+                }
+            }
+        }
     }
 
     /**
@@ -0,0 +1,179 @@
+package CSudoku.board;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable set of the consecutive constraints of a puzzle: the list of constraints and, for every cell, the
+ * directions in which it is linked to its neighbour.
+ * <p>
+ * Constraints never change during a game, so every board derived from the same puzzle (copies, simulated boards,
+ * playout and endgame boards) references the same topology instead of rebuilding its own list. Adding a
+ * constraint creates a new topology and leaves the previous one, and the boards sharing it, unchanged.
+ * </p>
+ */
+public final class ConstraintTopology {
+
+    private static final ConcurrentHashMap<Integer, ConstraintTopology> EMPTY = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final List<CSudokuBoard.Constraint> constraints; // Constraints in the order they were added
+    final byte[] directions; // Constrained directions of each cell, indexed by row * size + col, not to be modified
+    private final int unindexed; // Constraints between cells that are not adjacent inside the grid
+
+    private ConstraintTopology(int size, List<CSudokuBoard.Constraint> constraints, byte[] directions,
+                               int unindexed) {
+        this.size = size;
+        this.constraints = Collections.unmodifiableList(constraints);
+        this.directions = directions;
+        this.unindexed = unindexed;
+    }
+
+    /**
+     * Retrieves the topology without any constraint of a grid size.
+     *
+     * @param size The size of the grid.
+     * @return The shared empty topology for this size.
+     */
+    public static ConstraintTopology empty(int size) {
+        return EMPTY.computeIfAbsent(size, n -> new ConstraintTopology(n, new ArrayList<>(), new byte[n * n], 0));
+    }
+
+    /**
+     * Creates the topology of a list of constraints in a single pass.
+     *
+     * @param size        The size of the grid.
+     * @param constraints The constraints, in the order they were read.
+     * @return The new topology.
+     */
+    public static ConstraintTopology of(int size, List<CSudokuBoard.Constraint> constraints) {
+        ConstraintTopology empty = empty(size);
+        byte[] directions = new byte[size * size];
+        int unindexed = 0;
+        for (CSudokuBoard.Constraint constraint : constraints) {
+            int direction = empty.directionBetween(constraint.row1, constraint.col1, constraint.row2, constraint.col2);
+            if (direction == 0) {
+                unindexed++;
+            } else {
+                directions[constraint.row1 * size + constraint.col1] |= direction;
+                directions[constraint.row2 * size + constraint.col2] |= opposite(direction);
+            }
+        }
+        return new ConstraintTopology(size, new ArrayList<>(constraints), directions, unindexed);
+    }
+
+    /**
+     * Creates the topology made of this one and one more constraint.
+     *
+     * @param constraint The constraint to add.
+     * @return The new topology.
+     */
+    public ConstraintTopology with(CSudokuBoard.Constraint constraint) {
+        List<CSudokuBoard.Constraint> list = new ArrayList<>(constraints.size() + 1);
+        list.addAll(constraints);
+        list.add(constraint);
+        int direction = directionBetween(constraint.row1, constraint.col1, constraint.row2, constraint.col2);
+        if (direction == 0) {
+            return new ConstraintTopology(size, list, directions, unindexed + 1);
+        }
+        byte[] indexed = directions.clone();
+        indexed[constraint.row1 * size + constraint.col1] |= direction;
+        indexed[constraint.row2 * size + constraint.col2] |= opposite(direction);
+        return new ConstraintTopology(size, list, indexed, unindexed);
+    }
+
+    /**
+     * Retrieves the size of the grid.
+     *
+     * @return The size of the grid.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the constraints, in the order they were added.
+     *
+     * @return The read-only list of constraints.
+     */
+    public List<CSudokuBoard.Constraint> getConstraints() {
+        return constraints;
+    }
+
+    /**
+     * Retrieves the directions in which a cell has a consecutive constraint with its neighbour.
+     *
+     * @param cell The index of the cell, {@code row * size + col}.
+     * @return A combination of {@link CSudokuBoard#UP}, {@link CSudokuBoard#DOWN}, {@link CSudokuBoard#LEFT} and
+     *         {@link CSudokuBoard#RIGHT}.
+     */
+    public int getDirections(int cell) {
+        return directions[cell];
+    }
+
+    /**
+     * Checks if there is a consecutive constraint between two cells.
+     *
+     * @param row1 The row of the first cell.
+     * @param col1 The column of the first cell.
+     * @param row2 The row of the second cell.
+     * @param col2 The column of the second cell.
+     * @return {@code true} if a consecutive constraint exists, {@code false} otherwise.
+     */
+    public boolean hasConstraint(int row1, int col1, int row2, int col2) {
+        int direction = directionBetween(row1, col1, row2, col2);
+        if (direction != 0) {
+            return (directions[row1 * size + col1] & direction) != 0;
+        }
+        if (unindexed == 0) {
+            return false;
+        }
+        for (CSudokuBoard.Constraint constraint : constraints) {
+            if (constraint.affectsCells(row1, col1, row2, col2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the direction leading from the first cell to the second one.
+     *
+     * @param row1 The row of the first cell.
+     * @param col1 The column of the first cell.
+     * @param row2 The row of the second cell.
+     * @param col2 The column of the second cell.
+     * @return One of {@link CSudokuBoard#UP}, {@link CSudokuBoard#DOWN}, {@link CSudokuBoard#LEFT} and
+     *         {@link CSudokuBoard#RIGHT}, or 0 if the cells are not adjacent cells of the grid.
+     */
+    int directionBetween(int row1, int col1, int row2, int col2) {
+        if (row1 < 0 || row1 >= size || col1 < 0 || col1 >= size
+                || row2 < 0 || row2 >= size || col2 < 0 || col2 >= size) {
+            return 0;
+        }
+        if (row1 == row2) {
+            return col2 == col1 + 1 ? CSudokuBoard.RIGHT : col2 == col1 - 1 ? CSudokuBoard.LEFT : 0;
+        }
+        if (col1 == col2) {
+            return row2 == row1 + 1 ? CSudokuBoard.DOWN : row2 == row1 - 1 ? CSudokuBoard.UP : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the opposite of a direction.
+     *
+     * @param direction The direction.
+     * @return The opposite direction.
+     */
+    private static int opposite(int direction) {
+        return switch (direction) {
+            case CSudokuBoard.UP -> CSudokuBoard.DOWN;
+            case CSudokuBoard.DOWN -> CSudokuBoard.UP;
+            case CSudokuBoard.LEFT -> CSudokuBoard.RIGHT;
+            default -> CSudokuBoard.LEFT;
+        };
+    }
+}
@@ -0,0 +1,237 @@
+package CSudoku.board;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Geometry of a grid size: the subgrid of every cell, the cells of every row, column and subgrid, the peers of
+ * every cell and its adjacent cells.
+ * <p>
+ * Cells are numbered {@code row * size + col}. The tables only depend on the size of the grid, so they are built
+ * once per size and shared by every board, referee and strategy, which then find the cells to visit without any
+ * square root or division. The arrays returned are shared as well and must not be modified.
+ * </p>
+ */
+public final class GridGeometry {
+
+    private static final ConcurrentHashMap<Integer, GridGeometry> CACHE = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int boxSize; // Side of a subgrid (e.g., 3 for a 9x9 grid)
+    private final int boxesPerSide; // Number of subgrids in a row of subgrids
+    private final int[] rowOf; // Row of each cell
+    private final int[] colOf; // Column of each cell
+    private final int[] boxOf; // Subgrid of each cell, subgrids being numbered row by row
+    private final int[][] rowCells; // Cells of each row
+    private final int[][] colCells; // Cells of each column
+    private final int[][] boxCells; // Cells of each subgrid, row by row
+    private final int[][] peers; // Cells sharing a row, a column or a subgrid with each cell, the cell excluded
+    private final int[] neighbours; // Cell above, below, on the left and on the right of each cell, -1 if none
+
+    private GridGeometry(int size) {
+        this.size = size;
+        this.boxSize = Math.max(1, (int) Math.sqrt(size));
+        this.boxesPerSide = (size + boxSize - 1) / boxSize;
+        int cells = size * size;
+        this.rowOf = new int[cells];
+        this.colOf = new int[cells];
+        this.boxOf = new int[cells];
+        this.rowCells = new int[size][size];
+        this.colCells = new int[size][size];
+        int[] boxLength = new int[boxesPerSide * boxesPerSide];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int cell = row * size + col;
+                rowOf[cell] = row;
+                colOf[cell] = col;
+                boxOf[cell] = (row / boxSize) * boxesPerSide + col / boxSize;
+                rowCells[row][col] = cell;
+                colCells[col][row] = cell;
+                boxLength[boxOf[cell]]++;
+            }
+        }
+        this.boxCells = new int[boxLength.length][];
+        for (int box = 0; box < boxCells.length; box++) {
+            boxCells[box] = new int[boxLength[box]];
+            boxLength[box] = 0;
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            boxCells[boxOf[cell]][boxLength[boxOf[cell]]++] = cell;
+        }
+
+        this.peers = new int[cells][];
+        int[] buffer = new int[3 * size];
+        for (int cell = 0; cell < cells; cell++) {
+            int count = 0;
+            // Row, then column, then the cells of the subgrid that are in neither
+            for (int other : rowCells[rowOf[cell]]) {
+                if (other != cell) {
+                    buffer[count++] = other;
+                }
+            }
+            for (int other : colCells[colOf[cell]]) {
+                if (other != cell) {
+                    buffer[count++] = other;
+                }
+            }
+            for (int other : boxCells[boxOf[cell]]) {
+                if (rowOf[other] != rowOf[cell] && colOf[other] != colOf[cell]) {
+                    buffer[count++] = other;
+                }
+            }
+            peers[cell] = Arrays.copyOf(buffer, count);
+        }
+
+        this.neighbours = new int[4 * cells];
+        for (int cell = 0; cell < cells; cell++) {
+            int row = rowOf[cell];
+            int col = colOf[cell];
+            neighbours[4 * cell + directionIndex(CSudokuBoard.UP)] = row > 0 ? cell - size : -1;
+            neighbours[4 * cell + directionIndex(CSudokuBoard.DOWN)] = row < size - 1 ? cell + size : -1;
+            neighbours[4 * cell + directionIndex(CSudokuBoard.LEFT)] = col > 0 ? cell - 1 : -1;
+            neighbours[4 * cell + directionIndex(CSudokuBoard.RIGHT)] = col < size - 1 ? cell + 1 : -1;
+        }
+    }
+
+    /**
+     * Retrieves the geometry of a grid size, creating it on first use.
+     *
+     * @param size The size of the grid.
+     * @return The shared geometry for this size.
+     */
+    public static GridGeometry forSize(int size) {
+        return CACHE.computeIfAbsent(size, GridGeometry::new);
+    }
+
+    /**
+     * Retrieves the size of the grid.
+     *
+     * @return The size of the grid.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the side of a subgrid (e.g., 3 for a 9x9 grid).
+     *
+     * @return The side of a subgrid.
+     */
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    /**
+     * Retrieves the number of subgrids in a row of subgrids.
+     *
+     * @return The number of subgrids per side of the grid.
+     */
+    public int getBoxesPerSide() {
+        return boxesPerSide;
+    }
+
+    /**
+     * Retrieves the index of a cell.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The index of the cell, {@code row * size + col}.
+     */
+    public int cell(int row, int col) {
+        return row * size + col;
+    }
+
+    /**
+     * Retrieves the row of a cell.
+     *
+     * @param cell The index of the cell.
+     * @return The row of the cell.
+     */
+    public int row(int cell) {
+        return rowOf[cell];
+    }
+
+    /**
+     * Retrieves the column of a cell.
+     *
+     * @param cell The index of the cell.
+     * @return The column of the cell.
+     */
+    public int col(int cell) {
+        return colOf[cell];
+    }
+
+    /**
+     * Retrieves the subgrid of a cell.
+     *
+     * @param cell The index of the cell.
+     * @return The index of the subgrid, subgrids being numbered row by row.
+     */
+    public int box(int cell) {
+        return boxOf[cell];
+    }
+
+    /**
+     * Retrieves the cells of a row.
+     *
+     * @param row The row.
+     * @return The indexes of its cells, from left to right.
+     */
+    public int[] rowCells(int row) {
+        return rowCells[row];
+    }
+
+    /**
+     * Retrieves the cells of a column.
+     *
+     * @param col The column.
+     * @return The indexes of its cells, from top to bottom.
+     */
+    public int[] colCells(int col) {
+        return colCells[col];
+    }
+
+    /**
+     * Retrieves the cells of a subgrid.
+     *
+     * @param box The index of the subgrid.
+     * @return The indexes of its cells, row by row.
+     */
+    public int[] boxCells(int box) {
+        return boxCells[box];
+    }
+
+    /**
+     * Retrieves the peers of a cell, that is the cells which cannot hold the same value: the other cells of its
+     * row, then of its column, then the cells of its subgrid that are in neither.
+     *
+     * @param cell The index of the cell.
+     * @return The indexes of its peers.
+     */
+    public int[] peers(int cell) {
+        return peers[cell];
+    }
+
+    /**
+     * Retrieves the cell adjacent to a cell in a direction, the only cells a consecutive constraint indexed by
+     * {@link CSudokuBoard#getConstraintDirections(int, int)} can link it to.
+     *
+     * @param cell      The index of the cell.
+     * @param direction One of {@link CSudokuBoard#UP}, {@link CSudokuBoard#DOWN}, {@link CSudokuBoard#LEFT} and
+     *                  {@link CSudokuBoard#RIGHT}.
+     * @return The index of the adjacent cell, -1 on the border of the grid.
+     */
+    public int neighbour(int cell, int direction) {
+        return neighbours[4 * cell + directionIndex(direction)];
+    }
+
+    /**
+     * Converts a direction flag into an index from 0 to 3.
+     *
+     * @param direction The direction flag.
+     * @return Its index.
+     */
+    private static int directionIndex(int direction) {
+        return Integer.numberOfTrailingZeros(direction);
+    }
+}
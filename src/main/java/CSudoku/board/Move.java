@@ -33,6 +33,72 @@ public class Move implements Cloneable {
         this.value = move.value;
     }
 
+    /**
+     * Packs a move into a single int, 5 bits for the row, the column and the value each.
+     * The packed value 0 never represents a valid move, since values start at 1.
+     *
+     * @param row   The row index of the move (0-based).
+     * @param col   The column index of the move (0-based).
+     * @param value The value to be placed in the cell.
+     * @return The packed move.
+     */
+    public static int pack(int row, int col, int value) {
+        return (row << 10) | (col << 5) | value;
+    }
+
+    /**
+     * Rebuilds a move from its packed form.
+     *
+     * @param packed The move packed with {@link #pack(int, int, int)}.
+     * @return The corresponding move, or {@code null} if {@code packed} is 0.
+     */
+    public static Move unpack(int packed) {
+        if (packed == 0) {
+            return null;
+        }
+        return new Move(packedRow(packed), packedCol(packed), packedValue(packed));
+    }
+
+    /**
+     * Gets the row index of a packed move.
+     *
+     * @param packed The packed move.
+     * @return The row index (0-based).
+     */
+    public static int packedRow(int packed) {
+        return packed >>> 10;
+    }
+
+    /**
+     * Gets the column index of a packed move.
+     *
+     * @param packed The packed move.
+     * @return The column index (0-based).
+     */
+    public static int packedCol(int packed) {
+        return (packed >>> 5) & 31;
+    }
+
+    /**
+     * Gets the value of a packed move.
+     *
+     * @param packed The packed move.
+     * @return The value of the move.
+     */
+    public static int packedValue(int packed) {
+        return packed & 31;
+    }
+
+    /**
+     * Packs this move into a single int.
+     *
+     * @return The packed move.
+     * @see #pack(int, int, int)
+     */
+    public int pack() {
+        return pack(row, col, value);
+    }
+
     /**
      * Gets the row index of the move.
      *
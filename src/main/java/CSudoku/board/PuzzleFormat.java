@@ -0,0 +1,381 @@
+package CSudoku.board;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reading and writing of puzzles, in the text format of {@code src/main/resources} and in a compact binary format.
+ * <p>
+ * The text format starts with the size of the grid, followed by one line of values per row, in which the values
+ * are separated by {@code +} (consecutive constraint with the previous cell) or {@code -}, and between two rows by
+ * a line of {@code +} and {@code -}, one per column, {@code +} marking a constraint with the cell below. It is
+ * parsed in a single pass over the bytes, with the same reading of the tokens as the former line-based parser.
+ * </p>
+ * <p>
+ * The binary format is made of the magic number {@code CSDK}, a version byte, the size of the grid, one byte per
+ * cell in row order, then two bitmaps of one bit per cell (least significant bit first) marking the constraints
+ * with the cell on the right and with the cell below. A 9x9 puzzle takes 109 bytes. Only the constraints between
+ * adjacent cells of the grid are stored: the ones a malformed separator links to a cell outside the grid never
+ * restrict a value. Writing a puzzle read in either format gives back the same board, in the other format too.
+ * </p>
+ */
+public final class PuzzleFormat {
+
+    private static final byte[] MAGIC = {'C', 'S', 'D', 'K'};
+    private static final int VERSION = 1;
+    private static final int HEADER = MAGIC.length + 2;
+
+    private PuzzleFormat() {
+    }
+
+    /**
+     * Checks whether some data starts like a binary puzzle.
+     *
+     * @param data The content of a puzzle file.
+     * @return {@code true} for the binary format, {@code false} for the text format.
+     */
+    public static boolean isBinary(byte[] data) {
+        if (data.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loads a puzzle in either format into a board, replacing its size, values and constraints. The board is left
+     * unchanged if the data is invalid.
+     *
+     * @param data  The content of a puzzle file.
+     * @param board The board to load.
+     * @throws IOException           If the data is empty or truncated.
+     * @throws NumberFormatException If the data holds an invalid size, value or token.
+     */
+    public static void read(byte[] data, CSudokuBoard board) throws IOException {
+        if (isBinary(data)) {
+            readBinary(data, board);
+        } else {
+            readText(data, board);
+        }
+    }
+
+    /**
+     * Parses a puzzle in the text format.
+     *
+     * @param data  The text.
+     * @param board The board to load.
+     * @throws IOException           If the text is empty.
+     * @throws NumberFormatException If the text holds an invalid size, value or token.
+     */
+    private static void readText(byte[] data, CSudokuBoard board) throws IOException {
+        if (data.length == 0) {
+            throw new EOFException("The file is empty.");
+        }
+        int end = lineEnd(data, 0);
+        int size = parseInt(data, trimStart(data, 0, end), trimEnd(data, 0, end));
+        if (size < 1 || size > 31) {
+            throw new NumberFormatException("Invalid size: " + size);
+        }
+        byte[] cells = new byte[size * size];
+        List<CSudokuBoard.Constraint> constraints = new ArrayList<>();
+        int pos = nextLine(data, end);
+        int row = 0;
+        while (pos >= 0 && row < size) {
+            end = lineEnd(data, pos);
+            int col = 0;
+            int i = pos;
+            while (i < end) {
+                if (isSpace(data[i])) {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                while (i < end && !isSpace(data[i])) {
+                    i++;
+                }
+                if (i - start == 1 && (data[start] == '+' || data[start] == '-')) {
+                    if (data[start] == '+') {
+                        constraints.add(new CSudokuBoard.Constraint(row, col, row, col - 1));
+                    }
+                } else {
+                    int value = parseInt(data, start, i);
+                    if (col >= size || value < 0 || value > size) {
+                        throw new NumberFormatException("Invalid value in row " + row + ": " + value);
+                    }
+                    cells[row * size + col] = (byte) value;
+                    col++;
+                }
+            }
+            pos = nextLine(data, end);
+
+            // Separators of the constraints with the next row, one token per column
+            if (row < size - 1 && pos >= 0) {
+                end = lineEnd(data, pos);
+                // A line starting with a space has an empty first token
+                int token = pos < end && isSpace(data[pos]) ? 1 : 0;
+                i = pos;
+                while (i < end) {
+                    if (isSpace(data[i])) {
+                        i++;
+                        continue;
+                    }
+                    int start = i;
+                    while (i < end && !isSpace(data[i])) {
+                        i++;
+                    }
+                    if (i - start == 1 && data[start] == '+') {
+                        constraints.add(new CSudokuBoard.Constraint(row, token, row + 1, token));
+                    }
+                    token++;
+                }
+                pos = nextLine(data, end);
+            }
+            row++;
+        }
+        board.load(size, cells, ConstraintTopology.of(size, constraints));
+    }
+
+    /**
+     * Decodes a puzzle in the binary format.
+     *
+     * @param data  The encoded puzzle.
+     * @param board The board to load.
+     * @throws IOException           If the data is truncated or of an unknown version.
+     * @throws NumberFormatException If the data holds an invalid size or value.
+     */
+    private static void readBinary(byte[] data, CSudokuBoard board) throws IOException {
+        if (data.length < HEADER) {
+            throw new EOFException("Truncated puzzle header.");
+        }
+        if (data[MAGIC.length] != VERSION) {
+            throw new IOException("Unknown puzzle version: " + data[MAGIC.length]);
+        }
+        int size = data[MAGIC.length + 1] & 0xFF;
+        if (size < 1 || size > 31) {
+            throw new NumberFormatException("Invalid size: " + size);
+        }
+        int count = size * size;
+        int bitmap = (count + 7) / 8;
+        if (data.length < HEADER + count + 2 * bitmap) {
+            throw new EOFException("Truncated puzzle of size " + size + ".");
+        }
+        byte[] cells = new byte[count];
+        for (int cell = 0; cell < count; cell++) {
+            int value = data[HEADER + cell];
+            if (value < 0 || value > size) {
+                throw new NumberFormatException("Invalid value in cell " + cell + ": " + value);
+            }
+            cells[cell] = (byte) value;
+        }
+        int right = HEADER + count;
+        int down = right + bitmap;
+        // Same order as the text format: the constraints of a row from left to right, then those with the next row
+        List<CSudokuBoard.Constraint> constraints = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size - 1; col++) {
+                if (isSet(data, right, row * size + col)) {
+                    constraints.add(new CSudokuBoard.Constraint(row, col + 1, row, col));
+                }
+            }
+            for (int col = 0; row < size - 1 && col < size; col++) {
+                if (isSet(data, down, row * size + col)) {
+                    constraints.add(new CSudokuBoard.Constraint(row, col, row + 1, col));
+                }
+            }
+        }
+        board.load(size, cells, ConstraintTopology.of(size, constraints));
+    }
+
+    /**
+     * Writes a board in the text format.
+     *
+     * @param board The board.
+     * @return The text, with a line feed at the end of every line.
+     */
+    public static String toText(CSudokuBoard board) {
+        int size = board.getSize();
+        StringBuilder text = new StringBuilder(size * size * 8);
+        text.append(size).append('\n');
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (col > 0) {
+                    boolean linked = (board.getConstraintDirections(row, col) & CSudokuBoard.LEFT) != 0;
+                    text.append(linked ? " + " : " - ");
+                }
+                text.append(board.getValue(row, col));
+            }
+            text.append('\n');
+            if (row < size - 1) {
+                for (int col = 0; col < size; col++) {
+                    if (col > 0) {
+                        text.append("   ");
+                    }
+                    text.append((board.getConstraintDirections(row, col) & CSudokuBoard.DOWN) != 0 ? '+' : '-');
+                }
+                text.append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes a board in the text format.
+     *
+     * @param board The board.
+     * @return The text encoded in UTF-8.
+     */
+    public static byte[] toTextBytes(CSudokuBoard board) {
+        return toText(board).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a board in the binary format.
+     *
+     * @param board The board.
+     * @return The encoded puzzle.
+     */
+    public static byte[] toBinary(CSudokuBoard board) {
+        int size = board.getSize();
+        int count = size * size;
+        int bitmap = (count + 7) / 8;
+        byte[] data = new byte[HEADER + count + 2 * bitmap];
+        System.arraycopy(MAGIC, 0, data, 0, MAGIC.length);
+        data[MAGIC.length] = VERSION;
+        data[MAGIC.length + 1] = (byte) size;
+        int right = HEADER + count;
+        int down = right + bitmap;
+        for (int cell = 0; cell < count; cell++) {
+            data[HEADER + cell] = (byte) board.getValue(cell);
+            int directions = board.getConstraintDirections(cell / size, cell % size);
+            if ((directions & CSudokuBoard.RIGHT) != 0) {
+                data[right + (cell >>> 3)] |= (byte) (1 << (cell & 7));
+            }
+            if ((directions & CSudokuBoard.DOWN) != 0) {
+                data[down + (cell >>> 3)] |= (byte) (1 << (cell & 7));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Checks a bit of a bitmap.
+     *
+     * @param data   The encoded puzzle.
+     * @param offset The offset of the bitmap.
+     * @param cell   The index of the cell.
+     * @return {@code true} if the bit of the cell is set.
+     */
+    private static boolean isSet(byte[] data, int offset, int cell) {
+        return (data[offset + (cell >>> 3)] & (1 << (cell & 7))) != 0;
+    }
+
+    /**
+     * Parses a decimal integer with an optional sign, like {@link Integer#parseInt(String)}.
+     *
+     * @param data  The text.
+     * @param start The index of the first character.
+     * @param end   The index after the last character.
+     * @return The integer.
+     * @throws NumberFormatException If the characters are not an integer.
+     */
+    private static int parseInt(byte[] data, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (data[i] == '+' || data[i] == '-')) {
+            negative = data[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 9) {
+            // Empty, a sign alone or too long to be computed without overflow
+            return Integer.parseInt(new String(data, start, end - start, StandardCharsets.UTF_8));
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \""
+                        + new String(data, start, end - start, StandardCharsets.UTF_8) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Checks whether a byte is a separator of tokens.
+     *
+     * @param b The byte.
+     * @return {@code true} for a space, a tab or another control character.
+     */
+    private static boolean isSpace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * Finds the end of a line.
+     *
+     * @param data The text.
+     * @param pos  The index of the first character of the line.
+     * @return The index of its line feed or carriage return, or the length of the text.
+     */
+    private static int lineEnd(byte[] data, int pos) {
+        while (pos < data.length && data[pos] != '\n' && data[pos] != '\r') {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Finds the start of the next line.
+     *
+     * @param data The text.
+     * @param end  The end of the current line, as returned by {@link #lineEnd(byte[], int)}.
+     * @return The index of the first character of the next line, -1 if the text ends with the current line.
+     */
+    private static int nextLine(byte[] data, int end) {
+        if (end >= data.length) {
+            return -1;
+        }
+        if (data[end] == '\r' && end + 1 < data.length && data[end + 1] == '\n') {
+            end++;
+        }
+        return end + 1 < data.length ? end + 1 : -1;
+    }
+
+    /**
+     * Skips the spaces at the start of a part of the text.
+     *
+     * @param data  The text.
+     * @param start The index of the first character.
+     * @param end   The index after the last character.
+     * @return The index of the first character that is not a space.
+     */
+    private static int trimStart(byte[] data, int start, int end) {
+        while (start < end && isSpace(data[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * Skips the spaces at the end of a part of the text.
+     *
+     * @param data  The text.
+     * @param start The index of the first character.
+     * @param end   The index after the last character.
+     * @return The index after the last character that is not a space.
+     */
+    private static int trimEnd(byte[] data, int start, int end) {
+        while (end > start && isSpace(data[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,85 @@
+package CSudoku.board;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random 64-bit keys used to hash Sudoku positions with Zobrist hashing.
+ * <p>
+ * A position is hashed by XOR-ing the key of every (cell, value) pair of the grid and of every consecutive
+ * constraint, plus the side-to-move key when the second player is to move. Placing or removing a value
+ * therefore updates the hash with a single XOR.
+ * The keys only depend on the size of the grid and are generated from a fixed seed, so that two boards of the
+ * same size (even in different threads or runs) always agree on the hash of a position.
+ * </p>
+ */
+public final class ZobristKeys {
+
+    private static final ConcurrentHashMap<Integer, ZobristKeys> CACHE = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final long[] cellKeys; // Key of each (cell, value) pair, indexed by cell * (size + 1) + value
+    private final long[] constraintKeys; // Key of the right (even) and down (odd) constraints of each cell
+    private final long sideToMoveKey; // Key XOR-ed in when the second player is to move
+
+    private ZobristKeys(int size) {
+        this.size = size;
+        this.cellKeys = new long[size * size * (size + 1)];
+        SplittableRandom random = new SplittableRandom(0x5D0C0L * 31 + size);
+        for (int cell = 0; cell < size * size; cell++) {
+            // La valeur 0 (case vide) ne modifie pas le hash
+            for (int value = 1; value <= size; value++) {
+                cellKeys[cell * (size + 1) + value] = random.nextLong();
+            }
+        }
+        this.constraintKeys = new long[2 * size * size];
+        for (int i = 0; i < constraintKeys.length; i++) {
+            constraintKeys[i] = random.nextLong();
+        }
+        this.sideToMoveKey = random.nextLong();
+    }
+
+    /**
+     * Retrieves the keys of a grid size, creating them on first use.
+     *
+     * @param size The size of the grid.
+     * @return The shared keys for this size.
+     */
+    public static ZobristKeys forSize(int size) {
+        return CACHE.computeIfAbsent(size, ZobristKeys::new);
+    }
+
+    /**
+     * Retrieves the key of a value placed in a cell.
+     *
+     * @param row   The row of the cell.
+     * @param col   The column of the cell.
+     * @param value The value of the cell, 0 for an empty cell.
+     * @return The key of the pair, 0 for an empty cell.
+     */
+    public long cellKey(int row, int col, int value) {
+        return cellKeys[(row * size + col) * (size + 1) + value];
+    }
+
+    /**
+     * Retrieves the key of a consecutive constraint between a cell and its right or lower neighbour.
+     * Hashing the constraints keeps positions of different puzzles apart even when their grids are equal.
+     *
+     * @param row  The row of the cell.
+     * @param col  The column of the cell.
+     * @param down {@code true} for the constraint with the cell below, {@code false} for the cell on the right.
+     * @return The key of the constraint.
+     */
+    public long constraintKey(int row, int col, boolean down) {
+        return constraintKeys[2 * (row * size + col) + (down ? 1 : 0)];
+    }
+
+    /**
+     * Retrieves the key XOR-ed in when the second player is to move.
+     *
+     * @return The side-to-move key.
+     */
+    public long sideToMoveKey() {
+        return sideToMoveKey;
+    }
+}
@@ -1,60 +1,64 @@
 package CSudoku.observers;
 
+import java.util.concurrent.atomic.LongAdder;
+
 public class AlphaBetaPruningObserver {
 
-    private int alphaCutCount = 0; // Nombre de coupes Alpha
-    private int betaCutCount = 0;  // Nombre de coupes Beta
-    private int nodeCount = 0;     // Nombre de nœuds visités
+    // Compteurs partagés par les threads d'une recherche parallèle : chaque thread incrémente sa propre cellule,
+    // sans se disputer une même ligne de cache à chaque nœud, et les cellules ne sont sommées qu'à la lecture
+    private final LongAdder alphaCutCount = new LongAdder(); // Nombre de coupes Alpha
+    private final LongAdder betaCutCount = new LongAdder();  // Nombre de coupes Beta
+    private final LongAdder nodeCount = new LongAdder();     // Nombre de nœuds visités
 
     /**
      * Incrémente le nombre de nœuds visités.
      */
     public void incrementNodeCount() {
-        nodeCount++;
+        nodeCount.increment();
     }
 
     /**
      * Incrémente le nombre de coupes Alpha.
      */
     public void incrementAlphaCut() {
-        alphaCutCount++;
+        alphaCutCount.increment();
     }
 
     /**
      * Incrémente le nombre de coupes Beta.
      */
     public void incrementBetaCut() {
-        betaCutCount++;
+        betaCutCount.increment();
     }
 
     /**
      * Affiche le nombre de nœuds visités et de coupes.
      */
     public void printStats() {
-        System.out.println("Alpha cuts: " + alphaCutCount);
-        System.out.println("Beta cuts: " + betaCutCount);
-        System.out.println("Nodes visited: " + nodeCount);
+        System.out.println("Alpha cuts: " + alphaCutCount.sum());
+        System.out.println("Beta cuts: " + betaCutCount.sum());
+        System.out.println("Nodes visited: " + nodeCount.sum());
     }
 
     /**
      * Réinitialise les compteurs.
      */
     public void reset() {
-        alphaCutCount = 0;
-        betaCutCount = 0;
-        nodeCount = 0;
+        alphaCutCount.reset();
+        betaCutCount.reset();
+        nodeCount.reset();
     }
 
     // Getters pour accéder aux valeurs si nécessaire
     public int getAlphaCutCount() {
-        return alphaCutCount;
+        return alphaCutCount.intValue();
     }
 
     public int getBetaCutCount() {
-        return betaCutCount;
+        return betaCutCount.intValue();
     }
 
     public int getNodeCount() {
-        return nodeCount;
+        return nodeCount.intValue();
     }
-}
\ No newline at end of file
+}
@@ -42,4 +42,14 @@ public interface MoveStrategy {
      * @return The name of the strategy.
      */
     String getName();
+
+    /**
+     * Prepares the strategy for a new game.
+     * <p>
+     * A strategy may keep data from one move to the next (transposition table, move ordering). A player reused
+     * for several games calls this method before each one, so that a game does not depend on the previous ones.
+     * </p>
+     */
+    default void newGame() {
+    }
 }
\ No newline at end of file
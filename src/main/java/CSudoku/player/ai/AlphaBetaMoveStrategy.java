@@ -8,20 +8,50 @@ import CSudoku.player.Player;
 import CSudoku.player.ai.IACompetitionStrategy.Return;
 import CSudoku.player.ai.IACompetitionStrategy.Stats;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class AlphaBetaMoveStrategy implements MoveStrategy {
 
     private static final int MAX_DEPTH = 3; // Depth of the search tree
     private AlphaBetaPruningObserver observer;
+    private final int threads; // Number of threads searching the root, 1 for a sequential search
+    private SearchStack stack; // Moves, best moves and move ordering of the sequential search
+    private boolean moveOrdering = true; // False to search the moves in the order of generation
 
     /**
      * Constructor for AlphaBetaMoveStrategy.
      * Initializes the observer for tracking the Alpha-Beta cuts and node visits.
      */
     public AlphaBetaMoveStrategy() {
+        this(1);
+    }
+
+    /**
+     * Creates the strategy searching the root children with several threads.
+     *
+     * @param threads The number of threads, 1 for a sequential search.
+     */
+    public AlphaBetaMoveStrategy(int threads) {
         this.observer = new AlphaBetaPruningObserver(); // Initialize the observer
+        this.threads = Math.max(threads, 1);
+    }
+
+    /**
+     * Retrieves the observer counting the nodes and cuts of the last search.
+     *
+     * @return The observer of the strategy.
+     */
+    public AlphaBetaPruningObserver getObserver() {
+        return observer;
+    }
+
+    /**
+     * Turns the move ordering on or off. Without it, the moves are searched in the order of generation, which only
+     * serves to measure the nodes saved by the ordering. The ordering is on by default.
+     *
+     * @param moveOrdering {@code true} to order the moves, {@code false} to keep the order of generation.
+     */
+    public void setMoveOrdering(boolean moveOrdering) {
+        this.moveOrdering = moveOrdering;
+        stack = null;
     }
 
     /**
@@ -37,9 +67,10 @@ public class AlphaBetaMoveStrategy implements MoveStrategy {
         if (board == null) {
             return null;
         } else {
+            prepareOrdering(board.getSize());
             EvaluatedSimulatedBoard simulatedBoard = new EvaluatedSimulatedBoard(board, player);
             long startTime = System.nanoTime();
-            AlphaBetaResult bestResult = alphaBeta(simulatedBoard, MAX_DEPTH, Integer.MIN_VALUE, Integer.MAX_VALUE, true, (AIPlayer) player);
+            AlphaBetaResult bestResult = searchRoot(simulatedBoard, MAX_DEPTH, (AIPlayer) player);
             double temps = (System.nanoTime()-startTime)/1000000000.0;
             // System.out.println("temps de calcul : "+temps+"secondes");
             // observer.printStats();
@@ -53,11 +84,12 @@ public class AlphaBetaMoveStrategy implements MoveStrategy {
             return new Return(new Stats(), null);
         } else {
             long startTime = System.nanoTime();
+            prepareOrdering(board.getSize());
             EvaluatedSimulatedBoard simulatedBoard = new EvaluatedSimulatedBoard(board, player);
-            AlphaBetaResult bestResult = alphaBeta(simulatedBoard, MAX_DEPTH, Integer.MIN_VALUE, Integer.MAX_VALUE, true, (AIPlayer) player);
+            AlphaBetaResult bestResult = searchRoot(simulatedBoard, MAX_DEPTH, (AIPlayer) player);
             double temps = (System.nanoTime()-startTime)/1000000000.0;
             // System.out.println("temps de calcul : "+temps+"secondes");
-            observer.printStats();
+            // observer.printStats();
             Stats stats = new Stats();
             stats.total_coups += 1;
             stats.total_noeuds += observer.getNodeCount();
@@ -71,21 +103,51 @@ public class AlphaBetaMoveStrategy implements MoveStrategy {
     }
 
     /**
-     * Retrieves all valid moves for the AI player.
+     * Searches the root position, in parallel when the strategy has several threads.
      *
-     * @param board  The current state of the Sudoku board.
+     * @param board  The root position.
+     * @param depth  The search depth.
      * @param player The AI player.
-     * @return A list of all valid {@link Move} objects.
+     * @return The best move and its value.
      */
-    private List<Move> getValidMoves(EvaluatedSimulatedBoard board, AIPlayer player) {
-        ArrayList<Move> moves = new ArrayList<>();
-        for (int row = 0; row < board.getSize(); row++){
-            for (int col = 0; col < board.getSize(); col++){
-                if (board.isCellEmpty(row, col)){
-                    moves.addAll(player.coupsPossibles(board, row, col));}
-            }
+    private AlphaBetaResult searchRoot(EvaluatedSimulatedBoard board, int depth, AIPlayer player) {
+        if (threads == 1 || depth == 1) {
+            return alphaBeta(board, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, true, player);
+        }
+        observer.incrementNodeCount();
+        stack.reset();
+        int start = stack.generate(board);
+        int end = stack.top();
+        if (start == end) {
+            return new AlphaBetaResult(null, board.getEval());
+        }
+        int[] moves = stack.moves();
+        stack.ordering.order(moves, start, end, board, 0, depth, stack);
+        ParallelRootSearch.Result result = ParallelRootSearch.search(SearchPools.shared(threads), board, moves,
+                start, end, false, depth, stack,
+                (child, alpha, beta, childStack) -> alphaBeta(child, depth - 1, alpha, beta, false, childStack));
+        return new AlphaBetaResult(Move.unpack(result.bestMove), result.bestValue);
+    }
+
+    /**
+     * Forgets the killer moves and history of the previous game.
+     */
+    @Override
+    public void newGame() {
+        stack = null;
+    }
+
+    /**
+     * Creates the move ordering for the size of the board, or prepares the existing one for a new search.
+     *
+     * @param size The size of the board.
+     */
+    private void prepareOrdering(int size) {
+        if (stack == null || stack.getSize() != size) {
+            stack = new SearchStack(size, moveOrdering);
+        } else {
+            stack.ordering.newSearch();
         }
-        return moves;
     }
 
     public class AlphaBetaResult {
@@ -101,7 +163,7 @@ public class AlphaBetaMoveStrategy implements MoveStrategy {
     /**
      * Implements the Alpha-Beta pruning algorithm recursively to evaluate moves.
      *
-     * @param board              The current state of the board.
+     * @param board              The current state of the board, played on in place and restored before returning.
      * @param depth              The remaining search depth.
      * @param alpha              The best value for the maximizing player so far.
      * @param beta               The best value for the minimizing player so far.
@@ -111,59 +173,87 @@ public class AlphaBetaMoveStrategy implements MoveStrategy {
      */
     public AlphaBetaResult alphaBeta(EvaluatedSimulatedBoard board, int depth, int alpha, int beta,
                                      boolean isMaximizingPlayer, AIPlayer player) {
+        if (stack == null || stack.getSize() != board.getSize()) {
+            prepareOrdering(board.getSize());
+        }
+        stack.reset();
+        int value = alphaBeta(board, depth, alpha, beta, isMaximizingPlayer, stack);
+        return new AlphaBetaResult(Move.unpack(stack.getBestMove(depth)), value);
+    }
+
+    /**
+     * Alpha-Beta search of a node, without any allocation: the moves are pushed on the stack of the thread and
+     * popped before returning, and the best move is left in the stack, at the depth of the node.
+     *
+     * @param board              The current state of the board, played on in place and restored before returning.
+     * @param depth              The remaining search depth.
+     * @param alpha              The best value for the maximizing player so far.
+     * @param beta               The best value for the minimizing player so far.
+     * @param isMaximizingPlayer True if the current player is the maximizing player.
+     * @param stack              The stack of the searching thread.
+     * @return The evaluation score of the board state.
+     */
+    private int alphaBeta(EvaluatedSimulatedBoard board, int depth, int alpha, int beta,
+                          boolean isMaximizingPlayer, SearchStack stack) {
         observer.incrementNodeCount();
+        stack.setBestMove(depth, 0);
         if (depth == 1) {
-            return new AlphaBetaResult(null, board.getEval());
-        } else {
-            if (isMaximizingPlayer) {
-                int bestValue = Integer.MIN_VALUE;
-                Move bestMove = null;
-                List<Move> moves = getValidMoves(board, player);
-                if (moves.isEmpty()) {
-                    return new AlphaBetaResult(null, board.getEval());
+            return board.getEval();
+        }
+        int start = stack.generate(board);
+        int end = stack.top();
+        if (start == end) {
+            return board.getEval();
+        }
+        int[] moves = stack.moves();
+        stack.ordering.order(moves, start, end, board, 0, depth, stack);
+        int bestMove = 0;
+        if (isMaximizingPlayer) {
+            int bestValue = Integer.MIN_VALUE;
+            for (int i = start; i < end; i++) {
+                int move = moves[i];
+                board.applyMove(move, true, false, -1);
+                int value = alphaBeta(board, depth - 1, alpha, beta, false, stack);
+                board.undoMove();
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestMove = move;
+                }
+                if (bestValue >= beta) {
+                    observer.incrementBetaCut();
+                    stack.ordering.recordCutoff(move, depth);
+                    break;
                 }
-                for (Move move : moves) {
-                    EvaluatedSimulatedBoard newBoard = new EvaluatedSimulatedBoard(board);
-                    newBoard.setValue(move, true, false);
-                    AlphaBetaResult result = alphaBeta(newBoard, depth - 1, alpha, beta,false, player);
-                    if (result.bestValue > bestValue) {
-                        bestValue = result.bestValue;
-                        bestMove = move;
-                    }
-                    if (bestValue >= beta) {
-                        observer.incrementBetaCut();
-                        return new AlphaBetaResult(bestMove, bestValue);
-                    }
-                    if (bestValue > alpha) {
-                        alpha = bestValue;
-                    }
+                if (bestValue > alpha) {
+                    alpha = bestValue;
+                }
+            }
+            stack.pop(start);
+            stack.setBestMove(depth, bestMove);
+            return bestValue;
+        } else {
+            int bestValue = Integer.MAX_VALUE;
+            for (int i = start; i < end; i++) {
+                int move = moves[i];
+                board.applyMove(move, false, false, -1);
+                int value = alphaBeta(board, depth - 1, alpha, beta, true, stack);
+                board.undoMove();
+                if (value < bestValue) {
+                    bestValue = value;
+                    bestMove = move;
                 }
-                return new AlphaBetaResult(bestMove, bestValue);
-            } else {
-                int bestValue = Integer.MAX_VALUE;
-                Move bestMove = null;
-                List<Move> moves = getValidMoves(board, player);
-                if (moves.isEmpty()) {
-                    return new AlphaBetaResult(null, board.getEval());
+                if (bestValue <= alpha) {
+                    observer.incrementAlphaCut();
+                    stack.ordering.recordCutoff(move, depth);
+                    break;
                 }
-                for (Move move : moves) {
-                    EvaluatedSimulatedBoard newBoard = new EvaluatedSimulatedBoard(board);
-                    newBoard.setValue(move, false, false);
-                    AlphaBetaResult result = alphaBeta(newBoard, depth - 1, alpha, beta, true, player);
-                    if (result.bestValue < bestValue) {
-                        bestValue = result.bestValue;
-                        bestMove = move;
-                    }
-                    if (bestValue <= alpha) {
-                        observer.incrementAlphaCut();
-                        return new AlphaBetaResult(bestMove, bestValue);
-                    }
-                    if (bestValue < beta) {
-                        beta = bestValue;
-                    }
+                if (bestValue < beta) {
+                    beta = bestValue;
                 }
-                return new AlphaBetaResult(bestMove, bestValue);
             }
+            stack.pop(start);
+            stack.setBestMove(depth, bestMove);
+            return bestValue;
         }
     }
 
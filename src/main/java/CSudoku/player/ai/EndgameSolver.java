@@ -0,0 +1,322 @@
+package CSudoku.player.ai;
+
+import CSudoku.board.CSudokuBoard;
+import CSudoku.board.Move;
+import CSudoku.observers.AlphaBetaPruningObserver;
+
+import java.util.Arrays;
+
+/**
+ * Exact solver for the end of a game, when few cells remain empty.
+ * <p>
+ * The solver runs a negamax with alpha-beta pruning over the points the two players will still score, with the
+ * rules of the referee: a move scores its value plus {@code n * n} for every row, column or subgrid it completes,
+ * and a player who does not play loses {@code n} points. The game ends when no legal move remains, whether the
+ * remaining empty cells are filled or have no legal value. Two passes in a row only bring the position back, both
+ * players having lost {@code n} points, so the search stops there as if the game had ended.
+ * </p>
+ * <p>
+ * Positions are memoized by their Zobrist hash in a {@link TranspositionTable}. The region counters are updated
+ * incrementally and the legal values come from the candidate masks of the board, so a node costs no allocation.
+ * The search gives up beyond a number of nodes or after a deadline, so that a caller can fall back to a heuristic
+ * search when an endgame is too large to be solved in time.
+ * </p>
+ */
+public class EndgameSolver {
+
+    public static final int DEFAULT_MAX_NODES = 2000000; // Nodes visited before giving up
+    private static final int TABLE_SIZE_MB = 8;
+    private static final long PASS_KEY = 0x9E3779B97F4A7C15L; // Hash of "the opponent just passed"
+    private static final int TIME_CHECK_MASK = 1023; // The clock is read every 1024 nodes
+
+    private final int maxNodes;
+    private final AlphaBetaPruningObserver observer; // Counts the nodes, may be null
+    private final TranspositionTable table = new TranspositionTable(TABLE_SIZE_MB);
+    private CSudokuBoard board;
+    private int size;
+    private int[] emptyInRows;
+    private int[] emptyInCols;
+    private int[] emptyInBoxes;
+    private int[] emptyCells; // Empty cells of the position to solve
+    private long rootKey;
+    private int rootMove; // Best packed move of the root, 0 to pass
+    private int nodes;
+    private long deadline; // Time after which the search gives up, from System.nanoTime()
+
+    /**
+     * Result of an endgame search.
+     */
+    public static class Result {
+        public final Move bestMove; // null if the best choice is to pass
+        public final int value; // Points of the player to move minus points of the opponent, until the end
+
+        public Result(Move bestMove, int value) {
+            this.bestMove = bestMove;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Thrown when the node budget is used up or the deadline is reached.
+     */
+    private static final class BudgetExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BudgetExceededException() {
+            super("Endgame too large", null, false, false);
+        }
+    }
+
+    /**
+     * Creates a solver.
+     *
+     * @param maxNodes The number of nodes visited before giving up.
+     * @param observer The observer counting the nodes, or {@code null}.
+     */
+    public EndgameSolver(int maxNodes, AlphaBetaPruningObserver observer) {
+        this.maxNodes = maxNodes;
+        this.observer = observer;
+    }
+
+    /**
+     * Solves a position for the player to move.
+     *
+     * @param position       The position. It is not modified.
+     * @param opponentPassed {@code true} if the opponent just passed, in which case passing ends the search.
+     * @return The best move and the exact value of the position, or {@code null} if the node budget was used up.
+     */
+    public Result solve(CSudokuBoard position, boolean opponentPassed) {
+        return solve(position, opponentPassed, Long.MAX_VALUE);
+    }
+
+    /**
+     * Solves a position for the player to move, giving up at a deadline.
+     *
+     * @param position       The position. It is not modified.
+     * @param opponentPassed {@code true} if the opponent just passed, in which case passing ends the search.
+     * @param deadline       The time after which the search gives up, from {@link System#nanoTime()}.
+     * @return The best move and the exact value of the position, or {@code null} if the node budget was used up or
+     *         the deadline was reached.
+     */
+    public Result solve(CSudokuBoard position, boolean opponentPassed, long deadline) {
+        init(position);
+        nodes = 0;
+        this.deadline = deadline;
+        rootKey = opponentPassed ? board.getHash() ^ PASS_KEY : board.getHash();
+        rootMove = 0;
+        table.newSearch();
+        int value;
+        try {
+            value = negamax(opponentPassed, -Integer.MAX_VALUE, Integer.MAX_VALUE);
+        } catch (BudgetExceededException e) {
+            return null;
+        }
+        return new Result(rootMove == 0 ? null : Move.unpack(rootMove), value);
+    }
+
+    /**
+     * Empties the transposition table, before a new game.
+     */
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+     * Retrieves the number of nodes visited by the last search.
+     *
+     * @return The number of nodes.
+     */
+    public int getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Copies the position and counts the empty cells of every region.
+     *
+     * @param position The position to solve.
+     */
+    private void init(CSudokuBoard position) {
+        size = position.getSize();
+        board = new CSudokuBoard(size);
+        board.setTopology(position.getTopology());
+        int boxesPerRow = board.getGeometry().getBoxesPerSide();
+        emptyInRows = new int[size];
+        emptyInCols = new int[size];
+        emptyInBoxes = new int[boxesPerRow * boxesPerRow];
+        int count = 0;
+        int[] cells = new int[size * size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int value = position.getValue(row, col);
+                if (value != 0) {
+                    board.setValue(row, col, value);
+                } else {
+                    emptyInRows[row]++;
+                    emptyInCols[col]++;
+                    emptyInBoxes[board.getBoxIndex(row, col)]++;
+                    cells[count++] = row * size + col;
+                }
+            }
+        }
+        emptyCells = Arrays.copyOf(cells, count);
+    }
+
+    /**
+     * Negamax with alpha-beta pruning over the points still to be scored.
+     *
+     * @param passed {@code true} if the opponent just passed, in which case passing ends the search.
+     * @param alpha  The lower bound of the window.
+     * @param beta   The upper bound of the window.
+     * @return The points of the player to move minus the points of the opponent, until the end of the game.
+     */
+    private int negamax(boolean passed, int alpha, int beta) {
+        if (++nodes > maxNodes || ((nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() >= deadline)) {
+            throw new BudgetExceededException();
+        }
+        if (observer != null) {
+            observer.incrementNodeCount();
+        }
+        long key = passed ? board.getHash() ^ PASS_KEY : board.getHash();
+        long entry = table.probe(key);
+        int ttMove = TranspositionTable.move(entry);
+        if (entry != 0 && key != rootKey) { // La racine est toujours cherchée, pour connaître son meilleur coup
+            int score = TranspositionTable.score(entry);
+            int flag = TranspositionTable.flag(entry);
+            if (flag == TranspositionTable.EXACT
+                    || (flag == TranspositionTable.LOWER_BOUND && score >= beta)
+                    || (flag == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                return score;
+            }
+        }
+        int alphaOrig = alpha;
+        int best = -Integer.MAX_VALUE;
+        int bestMove = 0;
+        boolean hasMove = false;
+
+        // Deux passes : d'abord le coup de la table et les coups qui complètent une région, puis les autres
+        for (int pass = 0; pass < 2 && best < beta; pass++) {
+            if (pass == 0 && ttMove != 0 && isLegal(ttMove)) {
+                hasMove = true;
+                int value = tryMove(Move.packedRow(ttMove), Move.packedCol(ttMove), Move.packedValue(ttMove), alpha, beta);
+                best = value;
+                bestMove = ttMove;
+                alpha = Math.max(alpha, value);
+            }
+            for (int i = 0; i < emptyCells.length && best < beta; i++) {
+                int row = emptyCells[i] / size;
+                int col = emptyCells[i] % size;
+                int candidates = board.getCandidates(row, col);
+                if (candidates == 0) {
+                    continue;
+                }
+                hasMove = true;
+                if ((pass == 0) != completesRegion(row, col)) {
+                    continue;
+                }
+                while (candidates != 0 && best < beta) {
+                    int value = Integer.numberOfTrailingZeros(candidates) + 1;
+                    candidates &= candidates - 1;
+                    int move = Move.pack(row, col, value);
+                    if (move == ttMove) {
+                        continue;
+                    }
+                    int score = tryMove(row, col, value, alpha, beta);
+                    if (score > best) {
+                        best = score;
+                        bestMove = move;
+                    }
+                    alpha = Math.max(alpha, score);
+                }
+            }
+        }
+
+        if (!hasMove) {
+            return 0; // Plus aucun coup légal : fin de partie
+        }
+        // Passer coûte n points ; deux passes de suite ne font que répéter la position et terminent la recherche
+        if (best < beta) {
+            int score = passed ? -size : -size - negamax(true, saturatedSub(-size, beta), saturatedSub(-size, alpha));
+            if (score > best) {
+                best = score;
+                bestMove = 0;
+            }
+        }
+
+        int flag;
+        if (best <= alphaOrig) {
+            flag = TranspositionTable.UPPER_BOUND;
+        } else if (best >= beta) {
+            flag = TranspositionTable.LOWER_BOUND;
+        } else {
+            flag = TranspositionTable.EXACT;
+        }
+        table.store(key, emptyCells.length, flag, best, bestMove);
+        if (key == rootKey) {
+            rootMove = bestMove; // Les cases ne se vident jamais : seule la racine a cette clé
+        }
+        return best;
+    }
+
+    /**
+     * Plays a move, searches the resulting position and takes the move back.
+     *
+     * @param row   The row of the move.
+     * @param col   The column of the move.
+     * @param value The value of the move.
+     * @param alpha The lower bound of the window.
+     * @param beta  The upper bound of the window.
+     * @return The value of the move for the player to move.
+     */
+    private int tryMove(int row, int col, int value, int alpha, int beta) {
+        int box = board.getBoxIndex(row, col);
+        int gain = value;
+        board.setValue(row, col, value);
+        if (--emptyInRows[row] == 0) {
+            gain += size * size;
+        }
+        if (--emptyInCols[col] == 0) {
+            gain += size * size;
+        }
+        if (--emptyInBoxes[box] == 0) {
+            gain += size * size;
+        }
+        int score = gain - negamax(false, saturatedSub(gain, beta), saturatedSub(gain, alpha));
+        board.setValue(row, col, 0);
+        emptyInRows[row]++;
+        emptyInCols[col]++;
+        emptyInBoxes[box]++;
+        return score;
+    }
+
+    /**
+     * Checks that a packed move of the table can be played, in case two positions share the same key.
+     *
+     * @param move The packed move.
+     * @return {@code true} if the move is legal in the current position.
+     */
+    private boolean isLegal(int move) {
+        int row = Move.packedRow(move);
+        int col = Move.packedCol(move);
+        return row < size && col < size && board.isCellEmpty(row, col)
+                && (board.getCandidates(row, col) & (1 << (Move.packedValue(move) - 1))) != 0;
+    }
+
+    /**
+     * Checks whether a move in a cell completes a region.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return {@code true} if the cell is the last empty cell of its row, column or subgrid.
+     */
+    private boolean completesRegion(int row, int col) {
+        return emptyInRows[row] == 1 || emptyInCols[col] == 1 || emptyInBoxes[board.getBoxIndex(row, col)] == 1;
+    }
+
+    /**
+     * Computes {@code a - b} without overflowing, the bounds being kept within {@code ±Integer.MAX_VALUE}.
+     */
+    private static int saturatedSub(int a, int b) {
+        long result = (long) a - b;
+        return (int) Math.max(-Integer.MAX_VALUE, Math.min(Integer.MAX_VALUE, result));
+    }
+}
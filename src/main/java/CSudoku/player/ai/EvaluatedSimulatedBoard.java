@@ -1,6 +1,8 @@
 package CSudoku.player.ai;
 
 import CSudoku.board.CSudokuBoard;
+import CSudoku.board.ConstraintTopology;
+import CSudoku.board.GridGeometry;
 import CSudoku.board.Move;
 import CSudoku.player.Player;
 import CSudoku.referee.Referee;
@@ -15,11 +17,22 @@ import java.util.Arrays;
  */
 public class EvaluatedSimulatedBoard extends CSudokuBoard {
 
-    private int eval; // Evaluation score of the board.
-    private Move lastMove; // The last move played on the board.
+    private int eval; // Evaluation score of the board, without the mobility bonus of the last move if it is pending.
+    private boolean mobilityPending; // The mobility bonus of the last move is still to be added to eval.
+    private int lastMove; // The last move played on the board, packed, 0 if none.
     private int[] zerosInRows; // Number of empty cells (zeros) in each row.
     private int[] zerosInColumns; // Number of empty cells (zeros) in each column.
+    private int[] zerosInSubgrids; // Number of empty cells (zeros) in each subgrid, indexed by getBoxIndex.
+    private int[] candidateMasks; // Legal values of every cell, null until the mobility is first needed.
+    private int mobility; // Number of bits set in candidateMasks, that is the number of legal moves of the board.
+    private int[] journal; // Cells whose legal values changed during the moves applied, with their previous mask, by pairs.
+    private int journalTop; // Length of the journal.
+    private boolean journaling; // The changes of candidateMasks are written in the journal.
     private Player player;
+    private int[] undoEvals; // Evaluation before each move applied with applyMove.
+    private int[] undoLastMoves; // Last move before each move applied with applyMove, packed.
+    private int undoTop; // Number of moves that can be undone.
+    private int[] undoJournalTops; // Length of the journal before each move applied, -1 if its changes were not written.
 
     /**
      * Creates an empty evaluated simulated board with the given size.
@@ -31,43 +44,32 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
         this.player = null;
         /* Score initialisé à 0 */
         this.eval = 0;
-        this.lastMove = null;
-        this.zerosInRows = new int[size];
-        this.zerosInColumns = new int[size];
-
-        for (int i = 0; i < size; i++) {
-            this.zerosInRows[i] = size;
-            this.zerosInColumns[i] = size;
-        }
+        this.lastMove = 0;
+        countZeros();
     }
 
     /**
-     * Creates a deep copy of the given evaluated simulated board.
+     * Creates a deep copy of the given evaluated simulated board. The grid, the masks and the counters are copied
+     * in bulk.
      *
      * @param board The board to copy.
      */
     public EvaluatedSimulatedBoard(EvaluatedSimulatedBoard board) {
-        this(board.getSize());
-        this.lastMove = board.getLastMove();
+        super(board);
+        this.lastMove = board.lastMove;
         this.player = board.player;
 
         // Copie des zéros
-        for (int i = 0; i < board.getSize(); i++) {
-            this.zerosInColumns[i] = board.getZerosInColumn(i);
-            this.zerosInRows[i] = board.getZerosInRow(i);
-        }
+        this.zerosInRows = board.zerosInRows.clone();
+        this.zerosInColumns = board.zerosInColumns.clone();
+        this.zerosInSubgrids = board.zerosInSubgrids.clone();
 
         this.eval = board.getEval();
-        // Copie des valeurs
-        for (int i = 0; i < board.getSize(); i++) {
-            for (int j = 0; j < board.getSize(); j++) {
-                this.setValue(i, j, board.getValue(i, j));
-            }
-        }
 
-        // Copie des contraintes
-        for (Constraint c : board.getConstraints()) {
-            this.addConstraint(c);
+        // Copie des compteurs de valeurs légales, s'ils sont déjà tenus à jour
+        if (board.candidateMasks != null) {
+            this.candidateMasks = board.candidateMasks.clone();
+            this.mobility = board.mobility;
         }
     }
 
@@ -78,26 +80,33 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
      * @param player The AI/Automate player making the evaluation.
      */
     public EvaluatedSimulatedBoard(CSudokuBoard board, Player player) {
-        this(board.getSize());
+        super(board);
         this.player = player;
+        // La simulation commence avec le premier joueur au trait
+        if (isSecondPlayerToMove()) {
+            switchSideToMove();
+        }
+        countZeros();
+    }
 
-        // Copie des valeurs
-        for (int i = 0; i < board.getSize(); i++) {
-            for (int j = 0; j < board.getSize(); j++) {
-                this.setValue(i, j, board.getValue(i, j));
-                // Copie des zéros
-                if (!isCellEmpty(i, j)) {
-                    decreaseZerosInRows(i);
-                    decreaseZerosInColumns(j);
+    /**
+     * Counts the empty cells of every row, column and subgrid of the grid.
+     */
+    private void countZeros() {
+        int size = getSize();
+        this.zerosInRows = new int[size];
+        this.zerosInColumns = new int[size];
+        int boxesPerRow = getGeometry().getBoxesPerSide();
+        this.zerosInSubgrids = new int[boxesPerRow * boxesPerRow];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (isCellEmpty(i, j)) {
+                    this.zerosInRows[i]++;
+                    this.zerosInColumns[j]++;
+                    this.zerosInSubgrids[getBoxIndex(i, j)]++;
                 }
             }
         }
-
-        // Copie des contraintes
-        for (Constraint c : board.getConstraints()) {
-            this.addConstraint(c);
-        }
-
     }
 
     /**
@@ -120,6 +129,196 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
         return this.zerosInColumns[col];
     }
 
+    /**
+     * Returns the number of empty cells in the subgrid containing a cell.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The number of empty cells in the subgrid.
+     */
+    public int getZerosInSubgrid(int row, int col) {
+        return this.zerosInSubgrids[getBoxIndex(row, col)];
+    }
+
+    /**
+     * Retrieves the number of empty cells of the board.
+     *
+     * @return The number of empty cells.
+     */
+    public int getEmptyCellCount() {
+        int empty = 0;
+        for (int i = 0; i < getSize(); i++) {
+            empty += getZerosInRow(i);
+        }
+        return empty;
+    }
+
+    /**
+     * Retrieves the number of legal moves of the board, one per empty cell and legal value.
+     * <p>
+     * The legal values of every cell are computed on the first call, then kept up to date by
+     * {@link #setValue(int, int, int)} for the cells that see the modified cell only: placing a value in an empty
+     * cell removes that value from the cells of its row, column and subgrid, and only the cells linked to it by a
+     * constraint are recomputed. The changes made by {@link #applyMove(int, boolean, boolean, int)} are written in
+     * a journal and restored by {@link #undoMove()}.
+     * </p>
+     *
+     * @return The number of legal moves.
+     */
+    public int getMobility() {
+        if (candidateMasks == null) {
+            int n = getSize();
+            candidateMasks = new int[n * n];
+            mobility = 0;
+            for (int row = 0; row < n; row++) {
+                for (int col = 0; col < n; col++) {
+                    candidateMasks[row * n + col] = getCandidates(row, col);
+                    mobility += Integer.bitCount(candidateMasks[row * n + col]);
+                }
+            }
+        }
+        return mobility;
+    }
+
+    /**
+     * Sets the value of a cell and, once the mobility is counted, updates the legal values of the cells that see
+     * it.
+     *
+     * @param row   The row of the cell.
+     * @param col   The column of the cell.
+     * @param value The value to set in the cell, 0 to empty it.
+     */
+    @Override
+    public void setValue(int row, int col, int value) {
+        int old = getValue(row, col);
+        super.setValue(row, col, value);
+        if (candidateMasks != null) {
+            if (old == 0 && value != 0) {
+                removeCandidate(row, col, value);
+            } else {
+                updateCandidates(row, col);
+            }
+        }
+    }
+
+    /**
+     * Adds a constraint and, once the mobility is counted, updates the legal values of its two cells.
+     *
+     * @param constraint The constraint to add.
+     */
+    @Override
+    public void addConstraint(Constraint constraint) {
+        super.addConstraint(constraint);
+        if (candidateMasks != null) {
+            recountCandidates(constraint.row1, constraint.col1);
+            recountCandidates(constraint.row2, constraint.col2);
+        }
+    }
+
+    /**
+     * Replaces the constraints of the board. The legal values of every cell will be computed again when needed.
+     *
+     * @param topology The new constraints.
+     */
+    @Override
+    public void setTopology(ConstraintTopology topology) {
+        super.setTopology(topology);
+        candidateMasks = null;
+    }
+
+    /**
+     * Clears the board. The legal values of every cell will be computed again when needed.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        candidateMasks = null;
+    }
+
+    /**
+     * Updates the legal values after a value was placed in an empty cell: the cell has none left, the value is
+     * removed from the cells of its row, column and subgrid, and the cells linked to it by a consecutive constraint
+     * are recomputed.
+     *
+     * @param row   The row of the cell.
+     * @param col   The column of the cell.
+     * @param value The value placed.
+     */
+    private void removeCandidate(int row, int col, int value) {
+        int cell = row * getSize() + col;
+        int bit = 1 << (value - 1);
+        setCandidates(cell, 0);
+        for (int peer : getGeometry().peers(cell)) {
+            if ((candidateMasks[peer] & bit) != 0) {
+                setCandidates(peer, candidateMasks[peer] & ~bit);
+            }
+        }
+        int directions = getConstraintDirections(row, col);
+        if ((directions & UP) != 0) {
+            recountCandidates(row - 1, col);
+        }
+        if ((directions & DOWN) != 0) {
+            recountCandidates(row + 1, col);
+        }
+        if ((directions & LEFT) != 0) {
+            recountCandidates(row, col - 1);
+        }
+        if ((directions & RIGHT) != 0) {
+            recountCandidates(row, col + 1);
+        }
+    }
+
+    /**
+     * Recomputes the legal values of the cells whose candidates may have changed with a cell: the cell itself and
+     * the cells of its row, column and subgrid. The cells linked to it by a consecutive constraint are adjacent,
+     * so they are already in its row or its column.
+     *
+     * @param row The row of the modified cell.
+     * @param col The column of the modified cell.
+     */
+    private void updateCandidates(int row, int col) {
+        GridGeometry geometry = getGeometry();
+        int cell = geometry.cell(row, col);
+        recountCandidates(row, col);
+        for (int peer : geometry.peers(cell)) {
+            recountCandidates(geometry.row(peer), geometry.col(peer));
+        }
+    }
+
+    /**
+     * Recomputes the legal values of a cell.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    private void recountCandidates(int row, int col) {
+        int index = row * getSize() + col;
+        int candidates = getCandidates(row, col);
+        if (candidates != candidateMasks[index]) {
+            setCandidates(index, candidates);
+        }
+    }
+
+    /**
+     * Changes the legal values of a cell, updates the mobility by the difference of their number and, during
+     * {@link #applyMove(int, boolean, boolean, int)}, writes the previous values in the journal.
+     *
+     * @param index      The index of the cell, {@code row * size + col}.
+     * @param candidates The new mask of legal values.
+     */
+    private void setCandidates(int index, int candidates) {
+        int previous = candidateMasks[index];
+        if (journaling) {
+            if (journal == null || journalTop + 2 > journal.length) {
+                journal = journal == null ? new int[4 * getSize() * getSize()] : Arrays.copyOf(journal, 2 * journal.length);
+            }
+            journal[journalTop++] = index;
+            journal[journalTop++] = previous;
+        }
+        mobility += Integer.bitCount(candidates) - Integer.bitCount(previous);
+        candidateMasks[index] = candidates;
+    }
+
     /**
      * Checks if the board is completely filled.
      *
@@ -140,15 +339,44 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
      * @return The current evaluation score.
      */
     public int getEval() {
+        resolveMobility();
         return this.eval;
     }
 
+    /**
+     * Gets the evaluation score of a leaf when only its position relative to a search window matters.
+     * <p>
+     * The mobility bonus of the last move, which is never negative and costs a scan of the whole board, is only
+     * computed when the rest of the evaluation does not already fall outside the window: the score returned is
+     * then a bound of the evaluation, which is enough for an alpha-beta search.
+     * </p>
+     *
+     * @param alpha  The best value for the maximizing player so far.
+     * @param beta   The best value for the minimizing player so far.
+     * @param margin The largest bonus assumed for a fail low, or a negative value for the largest bonus possible,
+     *               which keeps the search exact.
+     * @return The evaluation score, or a bound of it outside the window.
+     */
+    public int getLazyEval(int alpha, int beta, int margin) {
+        if (mobilityPending) {
+            if (this.eval >= beta) {
+                return this.eval; // Le bonus ne peut que faire monter l'évaluation
+            }
+            int maxBonus = margin >= 0 ? margin : maxMobility() / 2;
+            if (this.eval + maxBonus <= alpha) {
+                return this.eval + maxBonus;
+            }
+        }
+        return getEval();
+    }
+
     /**
      * Sets the evaluation score of the board.
      *
      * @param eval The new evaluation score.
      */
     public void setEval(int eval) {
+        this.mobilityPending = false;
         this.eval = eval;
     }
 
@@ -158,7 +386,7 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
      * @return The last move.
      */
     public Move getLastMove() {
-        return lastMove;
+        return Move.unpack(lastMove);
     }
 
     /**
@@ -167,7 +395,7 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
      * @param move The move to set.
      */
     public void setLastMove(Move move) {
-        lastMove = move;
+        lastMove = move == null ? 0 : move.pack();
     }
 
     /**
@@ -177,18 +405,33 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
      * @param isMaximisingPlayer {@code true} if the move is by the maximizing player.
      */
     public void setValue(Move move, boolean isMaximisingPlayer, boolean ia, int depth) {
+        setValue(move.pack(), isMaximisingPlayer, ia, depth);
+    }
+
+    /**
+     * Sets a value on the board and updates the evaluation score, the move being packed with
+     * {@link Move#pack(int, int, int)}.
+     *
+     * @param move               The packed move to apply.
+     * @param isMaximisingPlayer {@code true} if the move is by the maximizing player.
+     * @param ia                 {@code true} to use the full evaluation of the competition AI.
+     * @param depth              The remaining search depth.
+     */
+    private void setValue(int move, boolean isMaximisingPlayer, boolean ia, int depth) {
+        // Le bonus de mobilité en attente porte sur la grille avant ce coup
+        resolveMobility();
         // On récupère les informations du coup
-        int row = move.getRow();
-        int col = move.getCol();
-        int value = move.getValue();
+        int row = Move.packedRow(move);
+        int col = Move.packedCol(move);
+        int value = Move.packedValue(move);
         // Pose le chiffre sur la grille
         this.setValue(row, col, value);
-        this.setLastMove(move);
         int n = this.getSize();
 
         // Mise à jour des compteurs et mémorisation du coup joué
         this.decreaseZerosInRows(row);
         this.decreaseZerosInColumns(col);
+        this.decreaseZerosInSubgrid(row, col);
         this.lastMove = move;
         // System.out.println("Zéros dans la ligne "+row+": "+getZerosInRow(row));
         // System.out.println("Zéros dans la colonne "+col+": "+getZerosInColumn(col));
@@ -226,9 +469,10 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
             this.increaseScore(-sign * (n * n + isSub));
         }
 
-        // Favorise les coups qui ne ferment pas la grille
-        if (ia && isMaximisingPlayer && n>4) {
-            this.increaseScore(evaluateMobility()/2);
+        // Favorise les coups qui ne ferment pas la grille. Le bonus n'est calculé qu'au moment où l'évaluation
+        // est lue, ce qui évite le parcours de la grille pour les feuilles coupées par getLazyEval
+        if (ia && isMaximisingPlayer && n>4 && this.player != null) {
+            this.mobilityPending = true;
         }
     }
 
@@ -237,6 +481,91 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
         setValue(move, isMaximisingPlayer, ia, -1);
     }
 
+    /**
+     * Plays a move in place, like {@link #setValue(Move, boolean, boolean, int)}, gives the turn to the other
+     * player and remembers what is needed to take it back with {@link #undoMove()}. This lets a search explore the tree on a single board
+     * instead of copying the board for every child.
+     *
+     * @param move               The move to apply.
+     * @param isMaximisingPlayer {@code true} if the move is by the maximizing player.
+     * @param ia                 {@code true} to use the full evaluation of the competition AI.
+     * @param depth              The remaining search depth.
+     */
+    public void applyMove(Move move, boolean isMaximisingPlayer, boolean ia, int depth) {
+        applyMove(move.pack(), isMaximisingPlayer, ia, depth);
+    }
+
+    /**
+     * Plays a move packed with {@link Move#pack(int, int, int)} in place, like
+     * {@link #applyMove(Move, boolean, boolean, int)}, without allocating anything once the undo stack has grown.
+     *
+     * @param move               The packed move to apply.
+     * @param isMaximisingPlayer {@code true} if the move is by the maximizing player.
+     * @param ia                 {@code true} to use the full evaluation of the competition AI.
+     * @param depth              The remaining search depth.
+     */
+    public void applyMove(int move, boolean isMaximisingPlayer, boolean ia, int depth) {
+        if (undoEvals == null || undoTop == undoEvals.length) {
+            int capacity = Math.max(getSize() * getSize(), 2 * undoTop) + 1;
+            undoEvals = undoEvals == null ? new int[capacity] : Arrays.copyOf(undoEvals, capacity);
+            undoLastMoves = undoLastMoves == null ? new int[capacity] : Arrays.copyOf(undoLastMoves, capacity);
+            undoJournalTops = undoJournalTops == null ? new int[capacity] : Arrays.copyOf(undoJournalTops, capacity);
+        }
+        resolveMobility();
+        undoEvals[undoTop] = this.eval;
+        undoLastMoves[undoTop] = this.lastMove;
+        // Les valeurs légales modifiées par le coup sont notées pour être restaurées par undoMove
+        undoJournalTops[undoTop] = candidateMasks != null ? journalTop : -1;
+        undoTop++;
+        journaling = candidateMasks != null;
+        setValue(move, isMaximisingPlayer, ia, depth);
+        journaling = false;
+        switchSideToMove();
+    }
+
+    /**
+     * Plays a move in place and remembers how to take it back.
+     *
+     * @param move               The move to apply.
+     * @param isMaximisingPlayer {@code true} if the move is by the maximizing player.
+     * @param ia                 {@code true} to use the full evaluation of the competition AI.
+     */
+    public void applyMove(Move move, boolean isMaximisingPlayer, boolean ia) {
+        applyMove(move, isMaximisingPlayer, ia, -1);
+    }
+
+    /**
+     * Takes back the last move played with {@link #applyMove(Move, boolean, boolean, int)}, restoring the cell,
+     * the empty-cell counters, the evaluation, the last move and the hash of the position.
+     */
+    public void undoMove() {
+        if (undoTop == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        undoTop--;
+        int row = Move.packedRow(this.lastMove);
+        int col = Move.packedCol(this.lastMove);
+        if (candidateMasks != null && undoJournalTops[undoTop] >= 0) {
+            // Restaure les valeurs légales notées par applyMove, dans l'ordre inverse
+            while (journalTop > undoJournalTops[undoTop]) {
+                int previous = journal[--journalTop];
+                int index = journal[--journalTop];
+                mobility += Integer.bitCount(previous) - Integer.bitCount(candidateMasks[index]);
+                candidateMasks[index] = previous;
+            }
+            super.setValue(row, col, 0);
+        } else {
+            this.setValue(row, col, 0);
+        }
+        this.zerosInRows[row]++;
+        this.zerosInColumns[col]++;
+        this.zerosInSubgrids[getBoxIndex(row, col)]++;
+        this.eval = undoEvals[undoTop];
+        this.mobilityPending = false;
+        this.lastMove = undoLastMoves[undoTop];
+        switchSideToMove();
+    }
+
     /**
      * Retrieves all the moves the player can do.
      *
@@ -282,19 +611,7 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
      * @return {@code true} if the subgrid is completely filled, {@code false} otherwise.
      */
     public boolean isSubgridFilled(int row, int col) {
-        int gridSize = (int) Math.sqrt(getSize());
-        // Calculer le début de la sous-grille
-        int startRow = (row / gridSize) * gridSize;
-        int startCol = (col / gridSize) * gridSize;
-        // Vérifier chaque case dans le bloc
-        for (int i = startRow; i < startRow + gridSize; i++) {
-            for (int j = startCol; j < startCol + gridSize; j++) {
-                if (this.isCellEmpty(i, j)) {  // Si une case est vide, la sous-grille n'est pas remplie
-                    return false;
-                }
-            }
-        }
-        return true;
+        return getZerosInSubgrid(row, col) == 0;
     }
 
     /**
@@ -315,6 +632,16 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
         this.zerosInColumns[col] = this.getZerosInColumn(col) - 1;
     }
 
+    /**
+     * Decreases the count of empty cells in the subgrid containing a cell.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     */
+    public void decreaseZerosInSubgrid(int row, int col) {
+        this.zerosInSubgrids[getBoxIndex(row, col)]--;
+    }
+
     /**
      * Increases the evaluation score by a given value.
      *
@@ -347,12 +674,7 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
         }
         for (int i = 0; i < getSize(); i++) {
             if (isCellEmpty(i, col)) {
-                ArrayList<Move> coups = this.player.coupsPossibles(this, i, col);
-                if (coups.size() > 0) {
-                    return coups.get(0).getValue(); // Renvoie le premier coup jouable
-                } else {
-                    return -1;
-                }
+                return firstMoveValue(i, col); // Renvoie le premier coup jouable
             }
         }
         return -1;
@@ -370,12 +692,7 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
         }
         for (int i = 0; i < getSize(); i++) {
             if (isCellEmpty(row, i)) {
-                ArrayList<Move> coups = this.player.coupsPossibles(this, row, i);
-                if (coups.size() > 0) {
-                    return coups.get(0).getValue(); // Renvoie le premier coup jouable
-                } else {
-                    return -1;
-                }
+                return firstMoveValue(row, i); // Renvoie le premier coup jouable
             }
         }
         return -1;
@@ -389,43 +706,56 @@ public class EvaluatedSimulatedBoard extends CSudokuBoard {
      * @return best move value if the subgrid can be filled in one move, -1 otherwise.
      */
     public int isSubgridAlmostFilled(int row, int col) {
-        int gridSize = (int) Math.sqrt(getSize());
-        int casesVides = 0;
-        ArrayList<Move> coups = new ArrayList<>();
-        // Calculer le début de la sous-grille
-        int startRow = (row / gridSize) * gridSize;
-        int startCol = (col / gridSize) * gridSize;
-        // Vérifier chaque case dans le bloc
-        for (int i = startRow; i < startRow + gridSize; i++) {
-            for (int j = startCol; j < startCol + gridSize; j++) {
-                if (this.isCellEmpty(i, j) && this.player != null) {
-                    casesVides++;
-                    coups = this.player.coupsPossibles(this, i, j);
-                }
-            }
+        if (getZerosInSubgrid(row, col) != 1 || this.player == null) {
+            return -1;
         }
-        if (casesVides == 1) {  // Il y a exactement une case vide
-            if (!coups.isEmpty()) {  // Et un coup peut être joué dedans
-                return coups.get(0).getValue();  // Return le premier coup disponible dans la sous-grille
+        GridGeometry geometry = getGeometry();
+        // Cherche l'unique case vide du bloc
+        for (int cell : geometry.boxCells(getBoxIndex(row, col))) {
+            if (this.isCellEmpty(geometry.row(cell), geometry.col(cell))) {
+                return firstMoveValue(geometry.row(cell), geometry.col(cell)); // Renvoie le premier coup jouable
             }
         }
         return -1;
     }
 
+    /**
+     * Retrieves the value of the first move {@link Player#coupsPossibles} gives for a cell, that is its largest
+     * legal value, without building the list of moves.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The largest legal value of the cell, -1 if there is none.
+     */
+    private int firstMoveValue(int row, int col) {
+        int candidates = getCandidates(row, col);
+        return candidates == 0 ? -1 : 32 - Integer.numberOfLeadingZeros(candidates);
+    }
+
+    /**
+     * Adds the pending mobility bonus of the last move to the evaluation.
+     */
+    private void resolveMobility() {
+        if (mobilityPending) {
+            mobilityPending = false;
+            this.eval += evaluateMobility() / 2;
+        }
+    }
+
+    /**
+     * Bounds the mobility of the board by the number of empty cells times the number of values.
+     *
+     * @return An upper bound of {@link #evaluateMobility()}.
+     */
+    private int maxMobility() {
+        return getEmptyCellCount() * getSize();
+    }
+
     /**
      * Évalue le bonus de mobilité en sommant, pour chaque case vide, le nombre de coups possibles
      */
     private int evaluateMobility() {
-        int bonus = 0;
-        int n = getSize();
-        // Pour chaque case vide du plateau, ajouter le nombre de coups possibles
-        for (int row = 0; row < n; row++) {
-            for (int col = 0; col < n; col++) {
-                if (isCellEmpty(row, col) && this.player != null) {
-                    bonus += player.coupsPossibles(this, row, col).size();
-                }
-            }
-        }
-        return bonus;
+        // Nombre de coups possibles sur toutes les cases vides, tenu à jour coup par coup
+        return this.player != null ? getMobility() : 0;
     }
 }
\ No newline at end of file
@@ -5,13 +5,30 @@ import CSudoku.board.CSudokuBoard;
 import CSudoku.board.Move;
 import CSudoku.player.MoveStrategy;
 import CSudoku.player.Player;
-import java.util.ArrayList;
 import java.util.List;
 
 public class IACompetitionStrategy implements MoveStrategy {
 
     private AlphaBetaPruningObserver observer;
+    private TranspositionTable transpositionTable; // Positions already searched, shared by successive moves
     private static final int MAX_DEPTH = 3; // Depth of the search tree
+    public static final int DEFAULT_TT_SIZE_MB = 16; // Default size of the transposition table
+    private static final int TIME_CHECK_INTERVAL = 1024; // Nodes visited between two checks of the clock
+    private final long timeBudgetMillis; // Time budget per move, 0 to search at a fixed depth
+    private long deadline = Long.MAX_VALUE; // End of the current iteration, from System.nanoTime()
+    private long rootKey; // Hash of the position being searched
+    private int rootMove; // Best move of the previous iteration, packed
+    private final int threads; // Number of search threads, 1 for a sequential search
+    private SearchStack stack; // Moves, best moves and move ordering of the search of this thread
+    private boolean moveOrdering = true; // False to search the moves in the order of generation
+    public static final int DEFAULT_ENDGAME_EMPTY_CELLS = 14; // Empty cells below which the game is solved exactly
+    private int endgameEmptyCells = DEFAULT_ENDGAME_EMPTY_CELLS;
+    public static final int ENDGAME_MAX_LEGAL_MOVES = 16; // Legal moves above which the endgame is too large to solve
+    private EndgameSolver endgameSolver; // Created on the first endgame
+    private boolean solvedExactly; // The last search was solved by the endgame solver
+    private long passedKey; // Hash of the position in which the solver chose to pass
+    private boolean passed; // The solver passed on the last move
+    private int lazyEvalMargin = -1; // Largest mobility bonus assumed at the leaves, negative for an exact search
 
     public static class Stats {
         public double total_temps;
@@ -31,6 +48,21 @@ public class IACompetitionStrategy implements MoveStrategy {
             this.max_noeuds = Integer.MIN_VALUE;
             this.min_noeuds = Integer.MAX_VALUE;
         }
+
+        /**
+         * Adds the statistics of other moves to these ones.
+         *
+         * @param other The statistics to add.
+         */
+        public void merge(Stats other) {
+            this.total_temps += other.total_temps;
+            this.total_noeuds += other.total_noeuds;
+            this.total_coups += other.total_coups;
+            this.max_temps = Math.max(this.max_temps, other.max_temps);
+            this.min_temps = Math.min(this.min_temps, other.min_temps);
+            this.max_noeuds = Math.max(this.max_noeuds, other.max_noeuds);
+            this.min_noeuds = Math.min(this.min_noeuds, other.min_noeuds);
+        }
     }
 
     public static class Return {
@@ -48,7 +80,97 @@ public class IACompetitionStrategy implements MoveStrategy {
      * Initializes the observer for tracking the Alpha-Beta cuts and node visits.
      */
     public IACompetitionStrategy()  {
+        this(DEFAULT_TT_SIZE_MB);
+    }
+
+    /**
+     * Creates the strategy with a transposition table of the given size.
+     *
+     * @param transpositionTableSizeMb The size of the transposition table in megabytes.
+     */
+    public IACompetitionStrategy(int transpositionTableSizeMb) {
+        this(transpositionTableSizeMb, 0);
+    }
+
+    /**
+     * Creates the strategy with a transposition table of the given size and a time budget per move.
+     *
+     * @param transpositionTableSizeMb The size of the transposition table in megabytes.
+     * @param timeBudgetMillis         The time budget per move in milliseconds, used by iterative deepening,
+     *                                 or 0 to search at the fixed depth estimated from the board.
+     */
+    public IACompetitionStrategy(int transpositionTableSizeMb, long timeBudgetMillis) {
+        this(transpositionTableSizeMb, timeBudgetMillis, 1);
+    }
+
+    /**
+     * Creates the strategy with a transposition table, a time budget per move and several search threads.
+     * The root children are then searched in parallel, sharing the transposition table.
+     *
+     * @param transpositionTableSizeMb The size of the transposition table in megabytes.
+     * @param timeBudgetMillis         The time budget per move in milliseconds, or 0 to search at a fixed depth.
+     * @param threads                  The number of threads, 1 for a sequential search.
+     */
+    public IACompetitionStrategy(int transpositionTableSizeMb, long timeBudgetMillis, int threads) {
         this.observer = new AlphaBetaPruningObserver(); // Initialize the observer
+        this.transpositionTable = new TranspositionTable(transpositionTableSizeMb);
+        this.timeBudgetMillis = Math.max(timeBudgetMillis, 0);
+        this.threads = Math.max(threads, 1);
+    }
+
+    /**
+     * Retrieves the observer counting the nodes and cuts of the last search.
+     *
+     * @return The observer of the strategy.
+     */
+    public AlphaBetaPruningObserver getObserver() {
+        return observer;
+    }
+
+    /**
+     * Sets the number of empty cells from which the endgame is solved exactly by an {@link EndgameSolver}
+     * instead of the heuristic search. The solver is only tried when the position also has at most
+     * {@link #ENDGAME_MAX_LEGAL_MOVES} legal moves: the size of the tree depends on the number of legal moves
+     * rather than on the number of empty cells, and a small grid still has many legal moves with 14 empty
+     * cells. When the endgame is too large for the solver, the heuristic search is used.
+     *
+     * @param endgameEmptyCells The number of empty cells, 0 to never use the solver.
+     */
+    public void setEndgameEmptyCells(int endgameEmptyCells) {
+        this.endgameEmptyCells = Math.max(endgameEmptyCells, 0);
+    }
+
+    /**
+     * Sets the margin of the lazy evaluation of the leaves. The mobility bonus of a leaf is skipped when the rest
+     * of its evaluation is already above the window, or below it even with the bonus bounded by the margin.
+     *
+     * @param lazyEvalMargin The largest mobility bonus assumed, or a negative value to bound it by the number of
+     *                       empty cells, which gives the same results as the full evaluation.
+     */
+    public void setLazyEvalMargin(int lazyEvalMargin) {
+        this.lazyEvalMargin = lazyEvalMargin;
+    }
+
+    /**
+     * Turns the move ordering on or off. Without it, the moves are searched in the order of generation, which only
+     * serves to measure the nodes saved by the ordering. The ordering is on by default.
+     *
+     * @param moveOrdering {@code true} to order the moves, {@code false} to keep the order of generation.
+     */
+    public void setMoveOrdering(boolean moveOrdering) {
+        this.moveOrdering = moveOrdering;
+        stack = null;
+    }
+
+    /**
+     * Thrown to abandon an iteration of the search once its deadline is reached.
+     */
+    private static final class SearchTimeoutException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SearchTimeoutException() {
+            super("Search time budget exceeded", null, false, false);
+        }
     }
 
     /**
@@ -67,6 +189,22 @@ public class IACompetitionStrategy implements MoveStrategy {
         return count;
     }
 
+    /**
+     * Counts the legal moves of the board, one per empty cell and candidate value.
+     *
+     * @param board The current state of the Sudoku board.
+     * @return The number of legal moves.
+     */
+    private int countLegalMoves(CSudokuBoard board) {
+        int count = 0;
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int col = 0; col < board.getSize(); col++) {
+                count += Integer.bitCount(board.getCandidates(row, col));
+            }
+        }
+        return count;
+    }
+
     /**
      * Calcule rho, le ratio de coups réellement possibles par rapport
      * aux coups théoriquement possibles (en prenant en compte les contraintes)
@@ -76,14 +214,20 @@ public class IACompetitionStrategy implements MoveStrategy {
         int emptyCount = 0;
         double totalValidMoves = 0;
 
-        // Parcours de toutes les cellules
-        for (int row = 0; row < n; row++) {
-            for (int col = 0; col < n; col++) {
-                if (board.isCellEmpty(row, col)) {
-                    emptyCount++;
-                    // On récupère la liste des coups possibles pour cette case
-                    List<Move> moves = player.coupsPossibles(board, row, col);
-                    totalValidMoves += moves.size();
+        if (board instanceof EvaluatedSimulatedBoard simulatedBoard) {
+            // Le plateau simulé tient déjà le compte des coups possibles
+            emptyCount = simulatedBoard.getEmptyCellCount();
+            totalValidMoves = simulatedBoard.getMobility();
+        } else {
+            // Parcours de toutes les cellules
+            for (int row = 0; row < n; row++) {
+                for (int col = 0; col < n; col++) {
+                    if (board.isCellEmpty(row, col)) {
+                        emptyCount++;
+                        // On récupère la liste des coups possibles pour cette case
+                        List<Move> moves = player.coupsPossibles(board, row, col);
+                        totalValidMoves += moves.size();
+                    }
                 }
             }
         }
@@ -126,26 +270,17 @@ public class IACompetitionStrategy implements MoveStrategy {
     @Override
     public Move selectMove(CSudokuBoard board, Player player) {
         observer.reset();
+        transpositionTable.newSearch();
         if (board == null) {
             return null;
         } else {
-            EvaluatedSimulatedBoard simulatedBoard = new EvaluatedSimulatedBoard(board, player);
-            IACompetitionResult bestResult;
             long startTime = System.nanoTime();
-            int emptyCount = countEmptyCells(board);
-            double rho = Rho(board, player);
-            int depth = Depth(emptyCount, board.getSize(), rho, 2000000); // 2000000 (cas de base)
-            // System.out.println(/*"rho:"+rho+"\n"+*/"depth:"+depth);
-            if (board.getSize() == 4) {
-                bestResult = iacompet(simulatedBoard, MAX_DEPTH, Integer.MIN_VALUE, Integer.MAX_VALUE, true, (AIPlayer) player);
-            } else {
-                bestResult = iacompet(simulatedBoard, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, true, (AIPlayer) player);
-            }
+            IACompetitionResult bestResult = search(board, player, startTime);
             double temps = (System.nanoTime()-startTime)/1000000000.0;
             // System.out.println("temps de calcul : "+temps+"secondes");
             // observer.printStats();
             // System.out.println("eval: "+bestResult.bestValue);
-            if (bestResult.bestValue < -board.getSize()) {
+            if (!solvedExactly && bestResult.bestValue < -board.getSize()) {
                 return null;  // Si prendre un malus coûte moins cher que ce coup, ne pas jouer
             } else {
                 return bestResult.bestMove;
@@ -155,21 +290,12 @@ public class IACompetitionStrategy implements MoveStrategy {
 
     public Return selectMove2(CSudokuBoard board, Player player) {
         observer.reset();
+        transpositionTable.newSearch();
         if (board == null) {
             return new Return(new Stats(), null);
         } else {
             long startTime = System.nanoTime();
-            EvaluatedSimulatedBoard simulatedBoard = new EvaluatedSimulatedBoard(board, player);
-            IACompetitionResult bestResult;
-            int emptyCount = countEmptyCells(board);
-            double rho = Rho(board, player);
-            int depth = Depth(emptyCount, board.getSize(), rho, 2000000); // 2000000 (cas de base)
-            // System.out.println(/*"rho:"+rho+"\n"+*/"depth:"+depth);
-            if (board.getSize() == 4) {
-                bestResult = iacompet(simulatedBoard, MAX_DEPTH, Integer.MIN_VALUE, Integer.MAX_VALUE, true, (AIPlayer) player);
-            } else {
-                bestResult = iacompet(simulatedBoard, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, true, (AIPlayer) player);
-            }
+            IACompetitionResult bestResult = search(board, player, startTime);
             double temps = (System.nanoTime()-startTime)/1000000000.0;
             // System.out.println("temps de calcul : "+temps+"secondes");
             // observer.printStats();
@@ -182,7 +308,7 @@ public class IACompetitionStrategy implements MoveStrategy {
             stats.min_noeuds = observer.getNodeCount();
             stats.max_temps = temps;
             stats.min_temps = temps;
-            if (bestResult.bestValue < -board.getSize()) {
+            if (!solvedExactly && bestResult.bestValue < -board.getSize()) {
                 return new Return(stats, null);
             } else {
                 return new Return(stats, bestResult.bestMove);
@@ -191,21 +317,149 @@ public class IACompetitionStrategy implements MoveStrategy {
     }
 
     /**
-     * Retrieves all valid moves for the AI player.
+     * Searches the best move, either at the fixed depth given by {@link #Rho(CSudokuBoard, Player)} and
+     * {@link #Depth(int, int, double, double)} when there is no time budget, or by iterative deepening.
+     * Near the end of the game, the position is solved exactly when the endgame solver manages it.
      *
-     * @param board  The current state of the Sudoku board.
-     * @param player The AI player.
-     * @return A list of all valid {@link Move} objects.
+     * @param board     The current state of the Sudoku board.
+     * @param player    The AI player making the move.
+     * @param startTime The time at which the move was requested, from {@link System#nanoTime()}.
+     * @return The result of the search.
+     */
+    private IACompetitionResult search(CSudokuBoard board, Player player, long startTime) {
+        prepareOrdering(board.getSize());
+        int emptyCount = countEmptyCells(board);
+        solvedExactly = false;
+        if (emptyCount <= endgameEmptyCells && countLegalMoves(board) <= ENDGAME_MAX_LEGAL_MOVES) {
+            if (endgameSolver == null) {
+                endgameSolver = new EndgameSolver(EndgameSolver.DEFAULT_MAX_NODES, observer);
+            }
+            // Si la grille n'a pas changé depuis notre passe, l'adversaire a passé aussi
+            boolean opponentPassed = passed && board.getHash() == passedKey;
+            // Avec un budget de temps, le solveur n'en prend que la moitié pour laisser la recherche heuristique finir
+            long solverDeadline = timeBudgetMillis > 0 ? startTime + timeBudgetMillis * 500000L : Long.MAX_VALUE;
+            EndgameSolver.Result result = endgameSolver.solve(board, opponentPassed, solverDeadline);
+            passed = result != null && result.bestMove == null;
+            passedKey = board.getHash();
+            if (result != null) {
+                // Le solveur décide lui-même de passer : son coup null n'est pas un échec
+                solvedExactly = true;
+                return new IACompetitionResult(result.bestMove, result.value);
+            }
+        }
+        if (timeBudgetMillis > 0) {
+            return iterativeDeepening(board, (AIPlayer) player, emptyCount, startTime + timeBudgetMillis * 1000000L);
+        }
+        EvaluatedSimulatedBoard simulatedBoard = new EvaluatedSimulatedBoard(board, player);
+        double rho = Rho(simulatedBoard, player);
+        int depth = Depth(emptyCount, board.getSize(), rho, 2000000); // 2000000 (cas de base)
+        // System.out.println(/*"rho:"+rho+"\n"+*/"depth:"+depth);
+        if (board.getSize() == 4) {
+            depth = MAX_DEPTH;
+        }
+        return searchRoot(simulatedBoard, depth, (AIPlayer) player);
+    }
+
+    /**
+     * Iterative deepening: searches at depth 2, 3, 4... until the deadline is reached or the whole game has been
+     * searched, and returns the result of the last completed iteration. The best move of an iteration is searched
+     * first by the next one. The first iteration always completes, so that a move is found even with a tiny budget.
+     *
+     * @param board      The current state of the Sudoku board.
+     * @param player     The AI player making the move.
+     * @param emptyCount The number of empty cells of the board.
+     * @param deadline   The time after which the search stops, from {@link System#nanoTime()}.
+     * @return The result of the deepest completed iteration.
      */
-    private List<Move> getValidMoves(EvaluatedSimulatedBoard board, AIPlayer player) {
-        ArrayList<Move> moves = new ArrayList<>();
-        for (int row = 0; row < board.getSize(); row++){
-            for (int col = 0; col < board.getSize(); col++){
-                if (board.isCellEmpty(row, col)){
-                    moves.addAll(player.coupsPossibles(board, row, col));}
+    private IACompetitionResult iterativeDeepening(CSudokuBoard board, AIPlayer player, int emptyCount, long deadline) {
+        IACompetitionResult bestResult = null;
+        rootKey = board.getHash();
+        rootMove = 0;
+        // Une profondeur de emptyCount + 1 explore la partie jusqu'à la fin
+        for (int depth = 2; depth <= emptyCount + 1; depth++) {
+            EvaluatedSimulatedBoard simulatedBoard = new EvaluatedSimulatedBoard(board, player);
+            this.deadline = depth == 2 ? Long.MAX_VALUE : deadline;
+            stack.nodesBeforeTimeCheck = TIME_CHECK_INTERVAL;
+            try {
+                bestResult = searchRoot(simulatedBoard, depth, player);
+            } catch (SearchTimeoutException e) {
+                break; // On garde le résultat de la dernière itération complète
+            }
+            if (bestResult.bestMove == null || System.nanoTime() >= deadline) {
+                break;
             }
+            rootMove = bestResult.bestMove.pack();
+        }
+        this.deadline = Long.MAX_VALUE;
+        if (bestResult == null) {
+            bestResult = new IACompetitionResult(null, 0);
+        }
+        return bestResult;
+    }
+
+    /**
+     * Searches the root position, in parallel when the strategy has several threads.
+     * The best move of the position, from the transposition table or the previous iteration, is searched first.
+     *
+     * @param board  The root position.
+     * @param depth  The search depth.
+     * @param player The AI player.
+     * @return The best move and its value.
+     */
+    private IACompetitionResult searchRoot(EvaluatedSimulatedBoard board, int depth, AIPlayer player) {
+        if (threads == 1 || depth == 1) {
+            return iacompet(board, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, true, player);
+        }
+        observer.incrementNodeCount();
+        stack.reset();
+        int start = stack.generate(board);
+        int end = stack.top();
+        if (start == end) {
+            return new IACompetitionResult(null, board.getEval());
+        }
+        int[] moves = stack.moves();
+        long key = board.getHash();
+        int ttMove = TranspositionTable.move(transpositionTable.probe(key));
+        stack.ordering.order(moves, start, end, board, ttMove != 0 ? ttMove : key == rootKey ? rootMove : 0, depth, stack);
+        ParallelRootSearch.Result result = ParallelRootSearch.search(SearchPools.shared(threads), board, moves,
+                start, end, true, depth, stack,
+                (child, alpha, beta, childStack) -> iacompet(child, depth - 1, alpha, beta, false, childStack));
+        // La racine est cherchée sans borne : sa valeur est exacte
+        transpositionTable.store(key, depth, TranspositionTable.EXACT, result.bestValue - board.getEval(),
+                result.bestMove);
+        return new IACompetitionResult(Move.unpack(result.bestMove), result.bestValue);
+    }
+
+    /**
+     * Empties the transposition tables and forgets the move ordering and the passes of the previous game, so that
+     * a reused strategy plays like a new one.
+     */
+    @Override
+    public void newGame() {
+        transpositionTable.clear();
+        if (endgameSolver != null) {
+            endgameSolver.clear();
+        }
+        stack = null;
+        rootKey = 0;
+        rootMove = 0;
+        solvedExactly = false;
+        passedKey = 0;
+        passed = false;
+    }
+
+    /**
+     * Creates the move ordering for the size of the board, or prepares the existing one for a new search.
+     *
+     * @param size The size of the board.
+     */
+    private void prepareOrdering(int size) {
+        if (stack == null || stack.getSize() != size) {
+            stack = new SearchStack(size, moveOrdering);
+            stack.nodesBeforeTimeCheck = TIME_CHECK_INTERVAL;
+        } else {
+            stack.ordering.newSearch();
         }
-        return moves;
     }
 
     public class IACompetitionResult {
@@ -221,7 +475,7 @@ public class IACompetitionStrategy implements MoveStrategy {
     /**
      * Implements the Alpha-Beta pruning algorithm recursively to evaluate moves.
      *
-     * @param board              The current state of the board.
+     * @param board              The current state of the board, played on in place and restored before returning.
      * @param depth              The remaining search depth.
      * @param alpha              The best value for the maximizing player so far.
      * @param beta               The best value for the minimizing player so far.
@@ -231,68 +485,127 @@ public class IACompetitionStrategy implements MoveStrategy {
      */
     public IACompetitionResult iacompet(EvaluatedSimulatedBoard board, int depth, int alpha, int beta,
                                         boolean isMaximizingPlayer, AIPlayer player) {
+        if (stack == null || stack.getSize() != board.getSize()) {
+            prepareOrdering(board.getSize());
+        }
+        stack.reset();
+        int value = iacompet(board, depth, alpha, beta, isMaximizingPlayer, stack);
+        return new IACompetitionResult(Move.unpack(stack.getBestMove(depth)), value);
+    }
+
+    /**
+     * Alpha-Beta search of a node with the transposition table, without any allocation: the moves are pushed on
+     * the stack of the thread and popped before returning, and the best move is left in the stack, at the depth
+     * of the node.
+     *
+     * @param board              The current state of the board, played on in place and restored before returning.
+     * @param depth              The remaining search depth.
+     * @param alpha              The best value for the maximizing player so far.
+     * @param beta               The best value for the minimizing player so far.
+     * @param isMaximizingPlayer True if the current player is the maximizing player.
+     * @param stack              The stack of the searching thread.
+     * @return The evaluation score of the board state.
+     */
+    private int iacompet(EvaluatedSimulatedBoard board, int depth, int alpha, int beta,
+                         boolean isMaximizingPlayer, SearchStack stack) {
         observer.incrementNodeCount();
+        if (--stack.nodesBeforeTimeCheck <= 0) {
+            stack.nodesBeforeTimeCheck = TIME_CHECK_INTERVAL;
+            if (System.nanoTime() >= deadline) {
+                throw new SearchTimeoutException();
+            }
+        }
+        stack.setBestMove(depth, 0);
         if (depth == 1) {
-            // System.out.println("Board value fin: "+board.getEval());
-            return new IACompetitionResult(null, board.getEval());
-        } else {
-            // System.out.println("Evaluation: "+board.getEval()+"\ndepth à: "+depth);
-            if (isMaximizingPlayer){
-                // System.out.println("Board value joueur maximisant: "+board.getEval());
-                int bestValue = Integer.MIN_VALUE;
-                Move bestMove = null;
-                List<Move> moves = getValidMoves(board, player);
-                if (moves.isEmpty()) {
-                    return new IACompetitionResult(null, board.getEval());
+            return board.getLazyEval(alpha, beta, lazyEvalMargin);
+        }
+
+        // Consultation de la table de transposition. Les scores y sont stockés relativement à l'évaluation
+        // de la position, car l'évaluation accumulée dépend du chemin suivi pour l'atteindre
+        long key = board.getHash();
+        long entry = transpositionTable.probe(key);
+        int ttMove = TranspositionTable.move(entry);
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            int score = TranspositionTable.score(entry) + board.getEval();
+            int flag = TranspositionTable.flag(entry);
+            if (flag == TranspositionTable.EXACT
+                    || (flag == TranspositionTable.LOWER_BOUND && score >= beta)
+                    || (flag == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                stack.setBestMove(depth, ttMove);
+                return score;
+            }
+        }
+        if (ttMove == 0 && key == rootKey) {
+            ttMove = rootMove; // Coup de l'itération précédente si la table l'a perdu
+        }
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+
+        int start = stack.generate(board);
+        int end = stack.top();
+        if (start == end) {
+            return board.getEval();
+        }
+        int[] moves = stack.moves();
+        // Le meilleur coup connu pour cette position est essayé en premier, puis les coups qui complètent une
+        // région, les coups tueurs et l'historique
+        stack.ordering.order(moves, start, end, board, ttMove, depth, stack);
+        int bestValue;
+        int bestMove = 0;
+        if (isMaximizingPlayer){
+            bestValue = Integer.MIN_VALUE;
+            for (int i = start; i < end; i++) {
+                int move = moves[i];
+                board.applyMove(move, true, true, depth);
+                int value = iacompet(board, depth - 1, alpha, beta, false, stack);
+                board.undoMove();
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestMove = move;
                 }
-                for (Move move : moves) {
-                    EvaluatedSimulatedBoard newBoard = new EvaluatedSimulatedBoard(board);
-                    newBoard.setValue(move, true, true, depth);
-                    IACompetitionResult result = iacompet(newBoard, depth - 1, alpha, beta,false, player);
-                    if (result.bestValue > bestValue) {
-                        bestValue = result.bestValue;
-                        bestMove = move;
-                    }
-                    if (bestValue >= beta) {
-                        observer.incrementBetaCut();
-                        // System.out.println("Best Value joueur maximisant: "+bestValue);
-                        return new IACompetitionResult(bestMove, bestValue);
-                    }
-                    if (bestValue > alpha) {
-                        alpha = bestValue;
-                    }
+                if (bestValue >= beta) {
+                    observer.incrementBetaCut();
+                    stack.ordering.recordCutoff(move, depth);
+                    break;
                 }
-                // System.out.println("Best Value joueur maximisant: "+bestValue);
-                return new IACompetitionResult(bestMove, bestValue);
-            } else {
-                // System.out.println("Board value joueur minimisant: "+board.getEval());
-                int bestValue = Integer.MAX_VALUE;
-                Move bestMove = null;
-                List<Move> moves = getValidMoves(board, player);
-                if (moves.isEmpty()) {
-                    return new IACompetitionResult(null, board.getEval());
+                if (bestValue > alpha) {
+                    alpha = bestValue;
                 }
-                for (Move move : moves){
-                    EvaluatedSimulatedBoard newBoard = new EvaluatedSimulatedBoard(board);
-                    newBoard.setValue(move, false, true, depth);
-                    IACompetitionResult result = iacompet(newBoard, depth - 1, alpha, beta, true, player);
-                    if (result.bestValue < bestValue) {
-                        bestValue = result.bestValue;
-                        bestMove = move;
-                    }
-                    if (bestValue <= alpha) {
-                        observer.incrementAlphaCut();
-                        // System.out.println("Best Value joueur minimisant: "+bestValue);
-                        return new IACompetitionResult(bestMove, bestValue);
-                    }
-                    if (bestValue < beta) {
-                        beta = bestValue;
-                    }
+            }
+        } else {
+            bestValue = Integer.MAX_VALUE;
+            for (int i = start; i < end; i++) {
+                int move = moves[i];
+                board.applyMove(move, false, true, depth);
+                int value = iacompet(board, depth - 1, alpha, beta, true, stack);
+                board.undoMove();
+                if (value < bestValue) {
+                    bestValue = value;
+                    bestMove = move;
+                }
+                if (bestValue <= alpha) {
+                    observer.incrementAlphaCut();
+                    stack.ordering.recordCutoff(move, depth);
+                    break;
+                }
+                if (bestValue < beta) {
+                    beta = bestValue;
                 }
-                // System.out.println("Best Value joueur minimisant: "+bestValue);
-                return new IACompetitionResult(bestMove, bestValue);
             }
         }
+
+        int flag;
+        if (bestValue <= alphaOrig) {
+            flag = TranspositionTable.UPPER_BOUND;
+        } else if (bestValue >= betaOrig) {
+            flag = TranspositionTable.LOWER_BOUND;
+        } else {
+            flag = TranspositionTable.EXACT;
+        }
+        transpositionTable.store(key, depth, flag, bestValue - board.getEval(), bestMove);
+        stack.pop(start);
+        stack.setBestMove(depth, bestMove);
+        return bestValue;
     }
 
     /**
@@ -0,0 +1,576 @@
+package CSudoku.player.ai;
+
+import CSudoku.board.CSudokuBoard;
+import CSudoku.board.GridGeometry;
+import CSudoku.board.Move;
+import CSudoku.player.MoveStrategy;
+import CSudoku.player.Player;
+import CSudoku.player.ai.IACompetitionStrategy.Return;
+import CSudoku.player.ai.IACompetitionStrategy.Stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A move strategy based on Monte Carlo Tree Search (UCT).
+ * <p>
+ * Every iteration walks down the tree with the UCT formula, adds one node, finishes the game with random legal
+ * moves (the playout) and credits the nodes of the path with the result: 1 for a win of the player who played
+ * the move of the node, 0.5 for a tie and 0 for a loss, counting only the points scored from the current
+ * position. The move played is the most visited child of the root.
+ * </p>
+ * <p>
+ * The tree can be shared by several threads (tree parallelism): a thread going through a node counts its visit
+ * right away, before knowing the result (virtual loss), so that the other threads explore other branches.
+ * The search stops when the time budget or the playout budget is used up. Unlike alpha-beta, the cost of the
+ * search does not grow with the branching factor, which makes large boards (16x16) playable.
+ * </p>
+ */
+public class MCTSMoveStrategy implements MoveStrategy {
+
+    public static final long DEFAULT_TIME_BUDGET_MS = 1000; // Default time budget per move
+    private static final double EXPLORATION = 0.7; // Exploration constant of the UCT formula
+    private static final int PLAYOUT_TRIES = 3; // Cells drawn in a playout to avoid leaving a region to the opponent
+
+    private final long timeBudgetMillis; // Time budget per move, 0 for no time limit
+    private final int playoutBudget; // Maximum number of playouts per move, 0 for no limit
+    private final int threads; // Number of threads sharing the tree
+    private final AtomicInteger playouts = new AtomicInteger(); // Playouts of the current search
+
+    /**
+     * A node of the search tree. Its fields are guarded by the node itself.
+     */
+    private static final class Node {
+        final int move; // Packed move leading to the node, 0 for the root
+        int visits; // Visits, including the ones of the playouts still running (virtual loss)
+        double reward; // Sum of the results for the player who played the move
+        int[] untried; // Packed moves, the best kinds first, null until the node is first expanded
+        int untriedNext; // Index of the next move of untried to expand
+        final List<Node> children = new ArrayList<>();
+
+        Node(int move) {
+            this.move = move;
+        }
+    }
+
+    /**
+     * Creates the strategy with the default time budget, on a single thread.
+     */
+    public MCTSMoveStrategy() {
+        this(DEFAULT_TIME_BUDGET_MS, 0, 1);
+    }
+
+    /**
+     * Creates the strategy.
+     *
+     * @param timeBudgetMillis The time budget per move in milliseconds, 0 for no time limit.
+     * @param playoutBudget    The maximum number of playouts per move, 0 for no limit.
+     * @param threads          The number of threads sharing the tree.
+     */
+    public MCTSMoveStrategy(long timeBudgetMillis, int playoutBudget, int threads) {
+        if (timeBudgetMillis <= 0 && playoutBudget <= 0) {
+            timeBudgetMillis = DEFAULT_TIME_BUDGET_MS; // Il faut au moins une limite
+        }
+        this.timeBudgetMillis = Math.max(timeBudgetMillis, 0);
+        this.playoutBudget = Math.max(playoutBudget, 0);
+        this.threads = Math.max(threads, 1);
+    }
+
+    /**
+     * Selects the most visited move of the root after the search.
+     *
+     * @param board  The current state of the Sudoku board.
+     * @param player The AI player making the move.
+     * @return The selected {@link Move}, or {@code null} if no valid move is available.
+     */
+    @Override
+    public Move selectMove(CSudokuBoard board, Player player) {
+        if (board == null) {
+            return null;
+        }
+        return search(board);
+    }
+
+    public Return selectMove2(CSudokuBoard board, Player player) {
+        if (board == null) {
+            return new Return(new Stats(), null);
+        }
+        long startTime = System.nanoTime();
+        Move move = search(board);
+        double temps = (System.nanoTime() - startTime) / 1000000000.0;
+        // Les noeuds comptés sont les parties simulées
+        Stats stats = new Stats();
+        stats.total_coups += 1;
+        stats.total_noeuds += playouts.get();
+        stats.total_temps += temps;
+        stats.max_noeuds = playouts.get();
+        stats.min_noeuds = playouts.get();
+        stats.max_temps = temps;
+        stats.min_temps = temps;
+        return new Return(stats, move);
+    }
+
+    /**
+     * Retrieves the number of playouts of the last search.
+     *
+     * @return The number of playouts.
+     */
+    public int getPlayoutCount() {
+        return playouts.get();
+    }
+
+    /**
+     * Runs the search from a position.
+     *
+     * @param board The position to search.
+     * @return The most visited move of the root, or {@code null} if no valid move is available.
+     */
+    private Move search(CSudokuBoard board) {
+        playouts.set(0);
+        Node root = new Node(0);
+        long deadline = timeBudgetMillis > 0 ? System.nanoTime() + timeBudgetMillis * 1000000L : Long.MAX_VALUE;
+        if (threads == 1) {
+            runIterations(root, board, deadline, 0);
+        } else {
+            ForkJoinPool pool = SearchPools.shared(threads);
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                int seed = i;
+                workers.add(pool.submit(() -> runIterations(root, board, deadline, seed)));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        Node best = null;
+        for (Node child : root.children) {
+            if (best == null || child.visits > best.visits
+                    || (child.visits == best.visits && child.reward > best.reward)) {
+                best = child;
+            }
+        }
+        return best == null ? null : Move.unpack(best.move);
+    }
+
+    /**
+     * Runs search iterations until the time or playout budget is used up.
+     *
+     * @param root     The root of the tree.
+     * @param board    The root position. It is only read.
+     * @param deadline The time after which the search stops, from {@link System#nanoTime()}.
+     * @param seed     The seed of the random moves of the thread.
+     */
+    private void runIterations(Node root, CSudokuBoard board, long deadline, int seed) {
+        PlayoutBoard state = new PlayoutBoard(board);
+        SplittableRandom random = new SplittableRandom(0x4D435453L + seed);
+        List<Node> path = new ArrayList<>();
+        while (System.nanoTime() < deadline) {
+            if (playouts.incrementAndGet() > playoutBudget && playoutBudget > 0) {
+                playouts.decrementAndGet();
+                break;
+            }
+            if (!iterate(root, state, random, path)) {
+                break; // La racine n'a aucun coup
+            }
+        }
+    }
+
+    /**
+     * Runs one iteration: selection, expansion, playout and backpropagation.
+     *
+     * @param root   The root of the tree.
+     * @param state  The board of the thread, at the root position. It is restored before returning.
+     * @param random The random generator of the thread.
+     * @param path   A list used to store the nodes of the path.
+     * @return {@code false} if the root has no move.
+     */
+    private boolean iterate(Node root, PlayoutBoard state, SplittableRandom random, List<Node> path) {
+        path.clear();
+        Node node = root;
+        synchronized (root) {
+            root.visits++;
+        }
+        // Sélection et expansion : le joueur 0 est celui qui a le trait à la racine
+        while (true) {
+            Node next;
+            boolean expanded = false;
+            synchronized (node) {
+                if (node.untried == null) {
+                    node.untried = state.legalMoves(random);
+                }
+                if (node.untriedNext < node.untried.length) {
+                    // On développe le prochain coup non essayé
+                    next = new Node(node.untried[node.untriedNext++]);
+                    next.visits = 1;
+                    node.children.add(next);
+                    expanded = true;
+                } else if (node.children.isEmpty()) {
+                    next = null; // Fin de partie
+                } else {
+                    next = selectChild(node);
+                    synchronized (next) {
+                        next.visits++; // Perte virtuelle jusqu'à la rétropropagation
+                    }
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            state.play(next.move, path.size() % 2);
+            path.add(next);
+            if (expanded) {
+                break;
+            }
+            node = next;
+        }
+        if (path.isEmpty() && root.children.isEmpty()) {
+            return false;
+        }
+
+        state.playout(path.size() % 2, random);
+        int difference = state.getPoints(0) - state.getPoints(1);
+        double result = difference > 0 ? 1 : difference < 0 ? 0 : 0.5;
+
+        // Rétropropagation : le coup du noeud à la profondeur d a été joué par le joueur (d - 1) % 2
+        for (int depth = 1; depth <= path.size(); depth++) {
+            Node n = path.get(depth - 1);
+            synchronized (n) {
+                n.reward += depth % 2 == 1 ? result : 1 - result;
+            }
+        }
+        state.reset();
+        return true;
+    }
+
+    /**
+     * Selects the child of a node maximizing the UCT formula. The caller holds the lock of the node.
+     *
+     * @param node The node.
+     * @return The selected child.
+     */
+    private static Node selectChild(Node node) {
+        double logVisits = Math.log(node.visits);
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Node child : node.children) {
+            double value;
+            synchronized (child) {
+                value = child.reward / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+            }
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The board of a search thread: plays moves while counting the points of the two players, generates random
+     * legal moves and goes back to the root position.
+     */
+    private static final class PlayoutBoard {
+        private final CSudokuBoard board;
+        private final int size;
+        private final int boxesPerRow;
+        private final int[] emptyInRows;
+        private final int[] emptyInCols;
+        private final int[] emptyInBoxes;
+        private final int[] played; // Cells of the moves played since the root
+        private int playedCount;
+        private final int[] points = new int[2];
+        private final int[] cells; // Empty cells still playable during a playout
+        private final int[] where; // Index of each cell in cells, -1 if it is no longer playable
+        private int cellCount;
+        private final int[] urgent; // Last empty cells of a region, played first during a playout
+        private int urgentCount;
+
+        PlayoutBoard(CSudokuBoard root) {
+            this.size = root.getSize();
+            this.board = new CSudokuBoard(size);
+            board.setTopology(root.getTopology());
+            this.boxesPerRow = board.getGeometry().getBoxesPerSide();
+            this.emptyInRows = new int[size];
+            this.emptyInCols = new int[size];
+            this.emptyInBoxes = new int[boxesPerRow * boxesPerRow];
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int value = root.getValue(row, col);
+                    if (value != 0) {
+                        board.setValue(row, col, value);
+                    } else {
+                        emptyInRows[row]++;
+                        emptyInCols[col]++;
+                        emptyInBoxes[board.getBoxIndex(row, col)]++;
+                    }
+                }
+            }
+            this.played = new int[size * size];
+            this.cells = new int[size * size];
+            this.where = new int[size * size];
+            this.urgent = new int[3 * size];
+        }
+
+        /**
+         * Lists the legal moves of the position, in random order within three kinds: the moves completing a
+         * region first, then the moves that do not leave a region with a single empty cell, which would give its
+         * bonus to the opponent, and these last.
+         *
+         * @param random The random generator.
+         * @return The packed legal moves.
+         */
+        int[] legalMoves(SplittableRandom random) {
+            int[] ends = new int[3]; // Nombre de coups de chaque sorte, puis position d'écriture
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int candidates = board.getCandidates(row, col);
+                    if (candidates != 0) {
+                        ends[kind(row, col)] += Integer.bitCount(candidates);
+                    }
+                }
+            }
+            int[] moves = new int[ends[0] + ends[1] + ends[2]];
+            int[] next = {0, ends[0], ends[0] + ends[1]};
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int candidates = board.getCandidates(row, col);
+                    if (candidates == 0) {
+                        continue;
+                    }
+                    int kind = kind(row, col);
+                    while (candidates != 0) {
+                        moves[next[kind]++] = Move.pack(row, col, Integer.numberOfTrailingZeros(candidates) + 1);
+                        candidates &= candidates - 1;
+                    }
+                }
+            }
+            shuffle(moves, 0, ends[0], random);
+            shuffle(moves, ends[0], ends[0] + ends[1], random);
+            shuffle(moves, ends[0] + ends[1], moves.length, random);
+            return moves;
+        }
+
+        /**
+         * Classifies the moves of an empty cell.
+         *
+         * @param row The row of the cell.
+         * @param col The column of the cell.
+         * @return 0 if a move in the cell completes a region, 2 if it leaves a region with a single empty cell,
+         * 1 otherwise.
+         */
+        private int kind(int row, int col) {
+            int rowEmpty = emptyInRows[row];
+            int colEmpty = emptyInCols[col];
+            int boxEmpty = emptyInBoxes[board.getBoxIndex(row, col)];
+            if (rowEmpty == 1 || colEmpty == 1 || boxEmpty == 1) {
+                return 0;
+            }
+            if (rowEmpty == 2 || colEmpty == 2 || boxEmpty == 2) {
+                return 2;
+            }
+            return 1;
+        }
+
+        /**
+         * Shuffles a range of an array.
+         *
+         * @param moves  The array.
+         * @param from   The first index of the range.
+         * @param to     The index after the range.
+         * @param random The random generator.
+         */
+        private static void shuffle(int[] moves, int from, int to, SplittableRandom random) {
+            for (int i = to - 1; i > from; i--) {
+                int j = from + random.nextInt(i - from + 1);
+                int tmp = moves[i];
+                moves[i] = moves[j];
+                moves[j] = tmp;
+            }
+        }
+
+        /**
+         * Plays a move and gives its points (value and completed regions) to a player.
+         *
+         * @param move   The packed move.
+         * @param player The player, 0 or 1.
+         */
+        void play(int move, int player) {
+            int row = Move.packedRow(move);
+            int col = Move.packedCol(move);
+            int value = Move.packedValue(move);
+            board.setValue(row, col, value);
+            played[playedCount++] = row * size + col;
+            int box = board.getBoxIndex(row, col);
+            int gain = value;
+            if (--emptyInRows[row] == 0) {
+                gain += size * size;
+            }
+            if (--emptyInCols[col] == 0) {
+                gain += size * size;
+            }
+            if (--emptyInBoxes[box] == 0) {
+                gain += size * size;
+            }
+            points[player] += gain;
+            // La dernière case vide d'une région rapporte un bonus : elle sera jouée en priorité
+            if (emptyInRows[row] == 1) {
+                pushUrgent(row, 0, 0, 1);
+            }
+            if (emptyInCols[col] == 1) {
+                pushUrgent(0, col, 1, 0);
+            }
+            if (emptyInBoxes[box] == 1) {
+                pushUrgentInBox(box);
+            }
+        }
+
+        /**
+         * Pushes the empty cell of a row or a column on the stack of urgent cells.
+         *
+         * @param row    The first row of the line.
+         * @param col    The first column of the line.
+         * @param dRow   The step between two rows.
+         * @param dCol   The step between two columns.
+         */
+        private void pushUrgent(int row, int col, int dRow, int dCol) {
+            for (int i = 0; i < size; i++, row += dRow, col += dCol) {
+                if (board.isCellEmpty(row, col)) {
+                    if (urgentCount < urgent.length) {
+                        urgent[urgentCount++] = row * size + col;
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Pushes the empty cell of a subgrid on the stack of urgent cells.
+         *
+         * @param box The index of the subgrid.
+         */
+        private void pushUrgentInBox(int box) {
+            GridGeometry geometry = board.getGeometry();
+            for (int cell : geometry.boxCells(box)) {
+                if (board.isCellEmpty(geometry.row(cell), geometry.col(cell))) {
+                    if (urgentCount < urgent.length) {
+                        urgent[urgentCount++] = cell;
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Removes a cell from the playable cells of the playout.
+         *
+         * @param cell The cell.
+         */
+        private void removeCell(int cell) {
+            int i = where[cell];
+            int last = cells[--cellCount];
+            cells[i] = last;
+            where[last] = i;
+            where[cell] = -1;
+        }
+
+        /**
+         * Finishes the game with random legal moves, the players taking turns. The last empty cell of a region is
+         * played first, as a player would to take the bonus of the region, and the cells leaving a region with a
+         * single empty cell are avoided when another random cell does not.
+         *
+         * @param player The player to move, 0 or 1.
+         * @param random The random generator.
+         */
+        void playout(int player, SplittableRandom random) {
+            cellCount = 0;
+            urgentCount = 0;
+            for (int cell = 0; cell < size * size; cell++) {
+                int row = cell / size;
+                int col = cell % size;
+                if (board.isCellEmpty(row, col)) {
+                    where[cell] = cellCount;
+                    cells[cellCount++] = cell;
+                    if (emptyInRows[row] == 1 || emptyInCols[col] == 1 || emptyInBoxes[board.getBoxIndex(row, col)] == 1) {
+                        urgent[urgentCount++ % urgent.length] = cell;
+                    }
+                } else {
+                    where[cell] = -1;
+                }
+            }
+            urgentCount = Math.min(urgentCount, urgent.length);
+            while (cellCount > 0) {
+                int cell;
+                if (urgentCount > 0) {
+                    cell = urgent[--urgentCount];
+                    if (where[cell] < 0) {
+                        continue;
+                    }
+                } else {
+                    // Quelques essais pour éviter de laisser une région à l'adversaire
+                    cell = cells[random.nextInt(cellCount)];
+                    for (int tries = 1; tries < PLAYOUT_TRIES && kind(cell / size, cell % size) == 2; tries++) {
+                        cell = cells[random.nextInt(cellCount)];
+                    }
+                }
+                int row = cell / size;
+                int col = cell % size;
+                // Une case sans candidat le reste : les coups suivants ne font que retirer des candidats
+                removeCell(cell);
+                int candidates = board.getCandidates(row, col);
+                if (candidates == 0) {
+                    continue;
+                }
+                int pick = random.nextInt(Integer.bitCount(candidates));
+                for (int k = 0; k < pick; k++) {
+                    candidates &= candidates - 1;
+                }
+                play(Move.pack(row, col, Integer.numberOfTrailingZeros(candidates) + 1), player);
+                player = 1 - player;
+            }
+        }
+
+        int getPoints(int player) {
+            return points[player];
+        }
+
+        /**
+         * Takes back every move played since the root position.
+         */
+        void reset() {
+            while (playedCount > 0) {
+                int cell = played[--playedCount];
+                int row = cell / size;
+                int col = cell % size;
+                board.setValue(row, col, 0);
+                emptyInRows[row]++;
+                emptyInCols[col]++;
+                emptyInBoxes[board.getBoxIndex(row, col)]++;
+            }
+            points[0] = 0;
+            points[1] = 0;
+        }
+    }
+
+    /**
+     * Returns the name of the strategy, which in this case is "MCTS".
+     *
+     * @return The name of the strategy, which is {@code "MCTS"}.
+     */
+    @Override
+    public String getName() {
+        return "MCTS";
+    }
+}
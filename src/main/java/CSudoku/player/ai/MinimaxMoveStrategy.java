@@ -22,6 +22,7 @@ public class MinimaxMoveStrategy implements MoveStrategy {
 
     public static final int MAX_DEPTH = 3; // Search depth for the Minimax algorithm
     private NodeCounterObserver nodeCounter;
+    private SearchStack stack; // Moves and best moves of every depth of the search
 
     public int getCount(){
         return this.nodeCounter.getCount();
@@ -123,53 +124,57 @@ public class MinimaxMoveStrategy implements MoveStrategy {
     /**
      * Implements the Minimax algorithm recursively to evaluate moves.
      *
-     * @param board              The current state of the board.
+     * @param board              The current state of the board, played on in place and restored before returning.
      * @param depth              The remaining search depth.
      * @param isMaximizingPlayer True if the current player is the maximizing player.
      * @param player             The AI player.
      * @return The evaluation score of the board state.
      */
     public MinimaxResult minimax(EvaluatedSimulatedBoard board, int depth, boolean isMaximizingPlayer, AIPlayer player) {
+        if (stack == null || stack.getSize() != board.getSize()) {
+            stack = new SearchStack(board.getSize());
+        }
+        stack.reset();
+        int value = minimax(board, depth, isMaximizingPlayer, stack);
+        return new MinimaxResult(Move.unpack(stack.getBestMove(depth)), value);
+    }
+
+    /**
+     * Minimax search of a node, without any allocation: the moves are pushed on the stack and popped before
+     * returning, and the best move is left in the stack, at the depth of the node.
+     *
+     * @param board              The current state of the board, played on in place and restored before returning.
+     * @param depth              The remaining search depth.
+     * @param isMaximizingPlayer True if the current player is the maximizing player.
+     * @param stack              The stack of the search.
+     * @return The evaluation score of the board state.
+     */
+    private int minimax(EvaluatedSimulatedBoard board, int depth, boolean isMaximizingPlayer, SearchStack stack) {
         this.nodeCounter.increment();
+        stack.setBestMove(depth, 0);
         if (depth == 1) {
-            //System.out.println(board.calculateHeuristic());
-            return new MinimaxResult(null, board.getEval());
-        } else {
-            if (isMaximizingPlayer){
-                int bestValue = Integer.MIN_VALUE;
-                Move bestMove = null;
-                List<Move> moves = getValidMoves(board, player);
-                if (moves.isEmpty()) {
-                    return new MinimaxResult(null, board.getEval());
-                }
-                for (Move move : moves) {
-                    EvaluatedSimulatedBoard newBoard = new EvaluatedSimulatedBoard(board);
-                    newBoard.setValue(move, true, false);
-                    MinimaxResult result = minimax(newBoard, depth - 1, false, player);
-                    if (result.bestValue > bestValue) {
-                        bestValue = result.bestValue;
-                        bestMove = move;
-                    }
-                }
-                return new MinimaxResult(bestMove, bestValue);
-            } else {
-                int bestValue = Integer.MAX_VALUE;
-                Move bestMove = null;
-                List<Move> moves = getValidMoves(board, player);
-                if (moves.isEmpty()) {
-                    return new MinimaxResult(null, board.getEval());
-                }
-                for (Move move : moves) {
-                    EvaluatedSimulatedBoard newBoard = new EvaluatedSimulatedBoard(board);
-                    newBoard.setValue(move, false, false);
-                    MinimaxResult result = minimax(newBoard, depth - 1, true, player);
-                    if (result.bestValue < bestValue) {
-                        bestValue = result.bestValue;
-                        bestMove = move;
-                    }
-                }
-                return new MinimaxResult(bestMove, bestValue);
+            return board.getEval();
+        }
+        int start = stack.generate(board);
+        int end = stack.top();
+        if (start == end) {
+            return board.getEval();
+        }
+        int[] moves = stack.moves();
+        int bestMove = 0;
+        int bestValue = isMaximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int i = start; i < end; i++) {
+            int move = moves[i];
+            board.applyMove(move, isMaximizingPlayer, false, -1);
+            int value = minimax(board, depth - 1, !isMaximizingPlayer, stack);
+            board.undoMove();
+            if (isMaximizingPlayer ? value > bestValue : value < bestValue) {
+                bestValue = value;
+                bestMove = move;
             }
         }
+        stack.pop(start);
+        stack.setBestMove(depth, bestMove);
+        return bestValue;
     }
-}
\ No newline at end of file
+}
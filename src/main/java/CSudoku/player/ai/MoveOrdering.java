@@ -0,0 +1,199 @@
+package CSudoku.player.ai;
+
+import CSudoku.board.CSudokuBoard;
+import CSudoku.board.Move;
+
+import java.util.Arrays;
+
+/**
+ * Orders the moves of a node so that the alpha-beta searches try the most promising ones first.
+ * <p>
+ * Moves are ranked, from first to last, by:
+ * <ol>
+ *     <li>the move of the transposition table,</li>
+ *     <li>the number of regions (row, column, subgrid) the move completes,</li>
+ *     <li>the two killer moves of the depth, that caused a cutoff in a sibling node,</li>
+ *     <li>the history table, which scores every (cell, value) pair by the cutoffs it caused,</li>
+ *     <li>the value of the move, the largest first as it scores the most points.</li>
+ * </ol>
+ * Moves with the same rank keep their order. An instance belongs to the {@link SearchStack} of one thread; the
+ * workers of a parallel search order their moves with copies of it, merged back when they are done.
+ * </p>
+ */
+public class MoveOrdering {
+
+    private static final int TT_MOVE_SCORE = 1 << 30;
+    private static final int COMPLETION_SCORE = 1 << 27; // Par région complétée
+    private static final int KILLER_SCORE = 1 << 25;
+    private static final int MAX_HISTORY = 1 << 19;
+    private static final int MAX_DEPTH = 128;
+
+    private final int size;
+    private final boolean enabled; // False to keep the moves in the order of generation
+    private final int[] history; // Indexed by (row * size + col) * (size + 1) + value
+    private final int[] killers; // Two packed moves per depth
+
+    /**
+     * Creates the move ordering of a grid size.
+     *
+     * @param size The size of the grid.
+     */
+    public MoveOrdering(int size) {
+        this(size, true);
+    }
+
+    /**
+     * Creates the move ordering of a grid size, or one that keeps the moves in the order of generation, to
+     * measure the nodes saved by the ordering.
+     *
+     * @param size    The size of the grid.
+     * @param enabled {@code true} to order the moves, {@code false} to keep the order of generation.
+     */
+    public MoveOrdering(int size, boolean enabled) {
+        this.size = size;
+        this.enabled = enabled;
+        this.history = new int[size * size * (size + 1)];
+        this.killers = new int[2 * MAX_DEPTH];
+    }
+
+    /**
+     * Creates a copy of a move ordering.
+     *
+     * @param other The move ordering to copy.
+     */
+    private MoveOrdering(MoveOrdering other) {
+        this.size = other.size;
+        this.enabled = other.enabled;
+        this.history = other.history.clone();
+        this.killers = other.killers.clone();
+    }
+
+    /**
+     * Creates a copy of the killer moves and history, updated independently of this instance.
+     *
+     * @return The copy.
+     */
+    MoveOrdering copy() {
+        return new MoveOrdering(this);
+    }
+
+    /**
+     * Retrieves the size of the grid the ordering was created for.
+     *
+     * @return The size of the grid.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sorts the moves of a node, the most promising first.
+     *
+     * @param moves  The packed moves, of which those of the node are sorted in place.
+     * @param from   The index of the first move of the node.
+     * @param to     The index following the last move of the node.
+     * @param board  The position of the node.
+     * @param ttMove The packed move of the transposition table, or 0.
+     * @param depth  The remaining depth of the node.
+     * @param stack  The stack of the searching thread, whose scratch arrays are used for the sort.
+     */
+    void order(int[] moves, int from, int to, CSudokuBoard board, int ttMove, int depth, SearchStack stack) {
+        int count = to - from;
+        if (count < 2 || !enabled) {
+            return;
+        }
+        int n = board.getSize();
+        int boxesPerRow = board.getGeometry().getBoxesPerSide();
+        int[] emptyInRows = stack.emptyInRows;
+        int[] emptyInCols = stack.emptyInCols;
+        int[] emptyInBoxes = stack.emptyInBoxes;
+        Arrays.fill(emptyInRows, 0, n, 0);
+        Arrays.fill(emptyInCols, 0, n, 0);
+        Arrays.fill(emptyInBoxes, 0, boxesPerRow * boxesPerRow, 0);
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                if (board.isCellEmpty(row, col)) {
+                    emptyInRows[row]++;
+                    emptyInCols[col]++;
+                    emptyInBoxes[board.getBoxIndex(row, col)]++;
+                }
+            }
+        }
+        int killer1 = 0;
+        int killer2 = 0;
+        if (depth >= 0 && depth < MAX_DEPTH) {
+            killer1 = killers[2 * depth];
+            killer2 = killers[2 * depth + 1];
+        }
+
+        // Tri par score décroissant : le score occupe les bits de poids fort de la clé et le coup ceux de poids
+        // faible, l'indice départageant les égalités pour garder l'ordre d'origine
+        long[] keys = stack.orderKeys;
+        for (int i = 0; i < count; i++) {
+            int packed = moves[from + i];
+            int row = Move.packedRow(packed);
+            int col = Move.packedCol(packed);
+            int value = Move.packedValue(packed);
+            int score;
+            if (packed == ttMove) {
+                score = TT_MOVE_SCORE;
+            } else {
+                int completed = (emptyInRows[row] == 1 ? 1 : 0) + (emptyInCols[col] == 1 ? 1 : 0)
+                        + (emptyInBoxes[board.getBoxIndex(row, col)] == 1 ? 1 : 0);
+                score = completed * COMPLETION_SCORE;
+                if (packed == killer1 || packed == killer2) {
+                    score += KILLER_SCORE;
+                }
+                score += (history[(row * size + col) * (size + 1) + value] << 5) + value;
+            }
+            keys[i] = ((long) -score << 32) | ((long) i << 16) | packed;
+        }
+        Arrays.sort(keys, 0, count);
+        for (int i = 0; i < count; i++) {
+            moves[from + i] = (int) (keys[i] & 0xFFFF);
+        }
+    }
+
+    /**
+     * Records a move that caused a cutoff: it becomes a killer move of the depth and its history score grows.
+     *
+     * @param packed The packed move.
+     * @param depth  The remaining depth of the node.
+     */
+    void recordCutoff(int packed, int depth) {
+        if (depth >= 0 && depth < MAX_DEPTH && killers[2 * depth] != packed) {
+            killers[2 * depth + 1] = killers[2 * depth];
+            killers[2 * depth] = packed;
+        }
+        int index = (Move.packedRow(packed) * size + Move.packedCol(packed)) * (size + 1) + Move.packedValue(packed);
+        history[index] += depth * depth;
+        if (history[index] > MAX_HISTORY) {
+            // On divise tout l'historique pour garder les scores sous ceux des coups tueurs
+            for (int i = 0; i < history.length; i++) {
+                history[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Merges the history learnt by the copy of a worker once its search is over: every (cell, value) pair keeps
+     * the larger of the two scores. The killer moves of this instance are kept.
+     *
+     * @param other A copy made by {@link #copy()}, no longer used by its worker.
+     */
+    void merge(MoveOrdering other) {
+        for (int i = 0; i < history.length; i++) {
+            history[i] = Math.max(history[i], other.history[i]);
+        }
+    }
+
+    /**
+     * Prepares a new search: the killer moves are forgotten and the history is aged.
+     */
+    public void newSearch() {
+        Arrays.fill(killers, 0);
+        for (int i = 0; i < history.length; i++) {
+            history[i] /= 2;
+        }
+    }
+}
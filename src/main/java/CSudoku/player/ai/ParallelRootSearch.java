@@ -0,0 +1,159 @@
+package CSudoku.player.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel search of the root of an alpha-beta tree (root splitting).
+ * <p>
+ * The leading root moves are searched sequentially to get a good lower bound, then the remaining root children
+ * are searched in parallel in a {@link ForkJoinPool}. The workers share the best value found so far, which is
+ * used as the alpha of every child started afterwards, and each one plays on its own copy of the board with its
+ * own {@link SearchStack}, forked from the stack of the calling thread; the history learnt by the workers is
+ * merged back into it once they are all done.
+ * The root is the maximizing player and has no upper bound, like in the sequential searches.
+ * </p>
+ * <p>
+ * A child searched with a raised alpha may fail low: its value is then only an upper bound and it is never
+ * selected. Among the children with the best exact value, the first one in the list is selected, as the
+ * sequential search would, but the number of nodes visited depends on the scheduling of the workers.
+ * </p>
+ */
+final class ParallelRootSearch {
+
+    static final int SEQUENTIAL_ROOT_MOVES = 1; // Coups de la racine cherchés avant de paralléliser
+
+    /**
+     * Search of the subtree of a root child, the child move being already played on the board.
+     */
+    interface ChildSearch {
+        /**
+         * Searches the position reached after a root move.
+         *
+         * @param board The board, the root move being played on it. It belongs to the calling thread.
+         * @param alpha The best value for the maximizing player so far.
+         * @param beta  The best value for the minimizing player so far.
+         * @param stack The stack of the calling thread.
+         * @return The value of the position.
+         */
+        int search(EvaluatedSimulatedBoard board, int alpha, int beta, SearchStack stack);
+    }
+
+    /**
+     * Result of a root search.
+     */
+    static final class Result {
+        final int bestMove; // Packed, 0 if none
+        final int bestValue;
+
+        Result(int bestMove, int bestValue) {
+            this.bestMove = bestMove;
+            this.bestValue = bestValue;
+        }
+    }
+
+    private ParallelRootSearch() {
+    }
+
+    /**
+     * Searches the root moves, the first ones sequentially and the others in parallel.
+     *
+     * @param pool  The pool running the workers.
+     * @param root  The root position. It is not modified.
+     * @param moves The packed root moves, in the order in which they should be searched. They are copied.
+     * @param from  The index of the first root move.
+     * @param to    The index following the last root move. Must be greater than {@code from}.
+     * @param ia    {@code true} to play the moves with the full evaluation of the competition AI.
+     * @param depth The remaining depth at the root, given to {@link EvaluatedSimulatedBoard#applyMove}.
+     * @param stack The stack of the calling thread, used by the sequential part. The moves pushed on it are kept.
+     * @param child The search of a root child.
+     * @return The best root move and its value.
+     */
+    static Result search(ForkJoinPool pool, EvaluatedSimulatedBoard root, int[] moves, int from, int to,
+                         boolean ia, int depth, SearchStack stack, ChildSearch child) {
+        moves = Arrays.copyOfRange(moves, from, to);
+        int count = moves.length;
+        int sequential = Math.min(SEQUENTIAL_ROOT_MOVES, count);
+        int bestValue = Integer.MIN_VALUE;
+        int bestMove = 0;
+
+        // Les premiers coups sont cherchés seuls pour obtenir une borne
+        EvaluatedSimulatedBoard board = new EvaluatedSimulatedBoard(root);
+        for (int i = 0; i < sequential; i++) {
+            int move = moves[i];
+            board.applyMove(move, true, ia, depth);
+            int value = child.search(board, bestValue, Integer.MAX_VALUE, stack);
+            board.undoMove();
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = move;
+            }
+        }
+
+        // Les autres fils sont répartis entre les threads avec un alpha partagé
+        AtomicInteger sharedAlpha = new AtomicInteger(bestValue);
+        ThreadLocal<EvaluatedSimulatedBoard> boards = ThreadLocal.withInitial(() -> new EvaluatedSimulatedBoard(root));
+        // Chaque thread part d'une copie des coups killers et de l'historique, sans écrire dans ceux des autres
+        Queue<SearchStack> forks = new ConcurrentLinkedQueue<>();
+        ThreadLocal<SearchStack> stacks = ThreadLocal.withInitial(() -> {
+            SearchStack fork = stack.fork();
+            forks.add(fork);
+            return fork;
+        });
+        List<Callable<int[]>> tasks = new ArrayList<>(count - sequential);
+        for (int i = sequential; i < count; i++) {
+            int move = moves[i];
+            tasks.add(() -> {
+                EvaluatedSimulatedBoard local = boards.get();
+                int alpha = sharedAlpha.get();
+                local.applyMove(move, true, ia, depth);
+                int value = child.search(local, alpha, Integer.MAX_VALUE, stacks.get());
+                local.undoMove();
+                sharedAlpha.accumulateAndGet(value, Math::max);
+                // Une valeur inférieure ou égale à l'alpha utilisé n'est qu'une borne
+                return new int[]{value, value > alpha ? 1 : 0};
+            });
+        }
+        List<Future<int[]>> results = pool.invokeAll(tasks);
+        for (SearchStack fork : forks) {
+            stack.ordering.merge(fork.ordering);
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            int[] result = join(results.get(i));
+            if (result[1] == 1 && result[0] > bestValue) {
+                bestValue = result[0];
+                bestMove = moves[sequential + i];
+            }
+        }
+        return new Result(bestMove, bestValue);
+    }
+
+    /**
+     * Waits for a worker and rethrows its exception, if any.
+     *
+     * @param future The result of the worker.
+     * @return The value of the worker.
+     */
+    private static int[] join(Future<int[]> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package CSudoku.player.ai;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Thread pools of the parallel searches, shared by every strategy of the process.
+ * <p>
+ * A strategy searching with several threads used to create its own pool, which was never shut down: a
+ * simulation or a league creating new players for every game then left idle workers behind each of them. The
+ * strategies now take the pool of their number of threads from here, so that the games running at the same time
+ * share the same workers. The workers are daemon threads and do not keep the process alive.
+ * </p>
+ */
+final class SearchPools {
+
+    private static final ConcurrentHashMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private SearchPools() {
+    }
+
+    /**
+     * Retrieves the pool of a number of threads, creating it on first use.
+     *
+     * @param threads The number of threads of the pool.
+     * @return The shared pool.
+     */
+    static ForkJoinPool shared(int threads) {
+        return POOLS.computeIfAbsent(Math.max(threads, 1), ForkJoinPool::new);
+    }
+}
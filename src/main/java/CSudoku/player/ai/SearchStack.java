@@ -0,0 +1,181 @@
+package CSudoku.player.ai;
+
+import CSudoku.board.CSudokuBoard;
+import CSudoku.board.GridGeometry;
+import CSudoku.board.Move;
+
+/**
+ * Working memory of one search thread, reused by every node so that the searches allocate nothing per node.
+ * <p>
+ * Moves are packed with {@link Move#pack(int, int, int)} and generated into a single arena used as a stack: a
+ * node pushes its moves above the moves of its ancestors, iterates over them by index and pops them before
+ * returning, so that the moves of the current path lie next to each other in memory. Each remaining depth also
+ * has its own best-move slot. The stack holds the scratch arrays of {@link MoveOrdering} as well, which are only
+ * used while a node sorts its moves.
+ * </p>
+ * <p>
+ * The killer moves, the history and the node count of the time checks are also kept per thread: every worker of
+ * a parallel search gets a {@link #fork()} of the stack of the calling thread and never writes to the state of
+ * another thread.
+ * </p>
+ */
+final class SearchStack {
+
+    private final int size;
+    private int[] moves; // Moves of the nodes of the current path, the deepest on top
+    private int top; // First free slot of the arena
+    private int[] bestMoves = new int[0]; // Best move found at every remaining depth, 0 if none
+    final long[] orderKeys; // Scratch of MoveOrdering: sort keys of the moves of a node
+    final int[] emptyInRows; // Scratch of MoveOrdering: empty cells of every row
+    final int[] emptyInCols; // Scratch of MoveOrdering: empty cells of every column
+    final int[] emptyInBoxes; // Scratch of MoveOrdering: empty cells of every subgrid
+    final MoveOrdering ordering; // Killer moves and history of the searches of the thread
+    int nodesBeforeTimeCheck; // Nodes searched by the thread before it next reads the clock
+
+    /**
+     * Creates the stack of a grid size.
+     *
+     * @param size The size of the grid.
+     */
+    SearchStack(int size) {
+        this(size, new MoveOrdering(size));
+    }
+
+    /**
+     * Creates the stack of a grid size, with or without move ordering.
+     *
+     * @param size         The size of the grid.
+     * @param moveOrdering {@code false} to keep the moves in the order of generation.
+     */
+    SearchStack(int size, boolean moveOrdering) {
+        this(size, new MoveOrdering(size, moveOrdering));
+    }
+
+    /**
+     * Creates the stack of a grid size with a given move ordering.
+     *
+     * @param size     The size of the grid.
+     * @param ordering The move ordering of the thread, not shared with any other stack.
+     */
+    private SearchStack(int size, MoveOrdering ordering) {
+        this.size = size;
+        this.ordering = ordering;
+        this.orderKeys = new long[size * size * size];
+        this.emptyInRows = new int[size];
+        this.emptyInCols = new int[size];
+        int boxesPerRow = GridGeometry.forSize(size).getBoxesPerSide();
+        this.emptyInBoxes = new int[boxesPerRow * boxesPerRow];
+        this.moves = new int[4 * size * size * size];
+    }
+
+    /**
+     * Creates the stack of a worker helping the thread of this stack: it starts with a copy of the killer moves,
+     * the history and the node count of the time checks, and is then updated independently.
+     *
+     * @return The new stack.
+     */
+    SearchStack fork() {
+        SearchStack fork = new SearchStack(size, ordering.copy());
+        fork.nodesBeforeTimeCheck = nodesBeforeTimeCheck;
+        return fork;
+    }
+
+    /**
+     * Retrieves the size of the grid the stack was created for.
+     *
+     * @return The size of the grid.
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Pushes the legal moves of a position on the stack, cell by cell in row order and from the largest value to
+     * the smallest in each cell, like {@link CSudoku.player.Player#coupsPossibles}. The arena grows if needed.
+     *
+     * @param board The position.
+     * @return The index of the first move in {@link #moves()}, the last one being just below {@link #top()}.
+     */
+    int generate(CSudokuBoard board) {
+        int start = top;
+        if (moves.length - top < size * size * size) {
+            int[] grown = new int[2 * moves.length + size * size * size];
+            System.arraycopy(moves, 0, grown, 0, top);
+            moves = grown;
+        }
+        int[] arena = moves;
+        int count = top;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int candidates = board.getCandidates(row, col);
+                while (candidates != 0) {
+                    int bit = 31 - Integer.numberOfLeadingZeros(candidates);
+                    arena[count++] = Move.pack(row, col, bit + 1);
+                    candidates &= ~(1 << bit);
+                }
+            }
+        }
+        top = count;
+        return start;
+    }
+
+    /**
+     * Retrieves the arena of moves. A node may keep the array while its children push and pop their moves: if the
+     * arena grows, the moves of the node keep their place in the previous array.
+     *
+     * @return The arena.
+     */
+    int[] moves() {
+        return moves;
+    }
+
+    /**
+     * Retrieves the first free slot of the arena, just above the moves of the last node that pushed some.
+     *
+     * @return The top of the stack.
+     */
+    int top() {
+        return top;
+    }
+
+    /**
+     * Empties the stack before a new search, including after a search abandoned by an exception.
+     */
+    void reset() {
+        top = 0;
+    }
+
+    /**
+     * Pops the moves of a node.
+     *
+     * @param start The index returned by {@link #generate(CSudokuBoard)} for the node.
+     */
+    void pop(int start) {
+        top = start;
+    }
+
+    /**
+     * Records the best move of a node.
+     *
+     * @param depth The remaining depth of the node.
+     * @param move  The packed best move, 0 if the node has none.
+     */
+    void setBestMove(int depth, int move) {
+        if (depth >= bestMoves.length) {
+            int[] grown = new int[Math.max(depth + 1, 2 * bestMoves.length)];
+            System.arraycopy(bestMoves, 0, grown, 0, bestMoves.length);
+            bestMoves = grown;
+        }
+        bestMoves[depth] = move;
+    }
+
+    /**
+     * Retrieves the best move of the last node searched at a depth.
+     *
+     * @param depth The remaining depth of the node.
+     * @return The packed best move, 0 if the node had none.
+     */
+    int getBestMove(int depth) {
+        return depth < bestMoves.length ? bestMoves[depth] : 0;
+    }
+}
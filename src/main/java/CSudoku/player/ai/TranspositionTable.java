@@ -0,0 +1,166 @@
+package CSudoku.player.ai;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size transposition table storing the result of already searched positions.
+ * <p>
+ * Positions are identified by their Zobrist hash ({@link CSudoku.board.CSudokuBoard#getHash()}). Each entry
+ * keeps the remaining depth of the search, the type of bound, the score and the best move (packed with
+ * {@link CSudoku.board.Move#pack(int, int, int)}). The table length is a power of two, so that the slot of a
+ * position is given by the low bits of its hash.
+ * </p>
+ * <p>
+ * The table can be shared by several search threads without locking. An entry is packed into a single
+ * {@code long} (the data) and stored next to its key XOR-ed with the data. If two threads write the same slot at
+ * the same time, the key read back from a mixed entry does not match and the entry is treated as missing, so a
+ * probe never returns the data of another position.
+ * </p>
+ * <p>
+ * Replacement policy: an entry left by a previous search is always replaced, while an entry of the current
+ * search is only replaced by a result at least as deep.
+ * </p>
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 0;       // The score is the exact value of the position
+    public static final int LOWER_BOUND = 1; // The search failed high: the value is at least the score
+    public static final int UPPER_BOUND = 2; // The search failed low: the value is at most the score
+
+    private static final int ENTRY_BYTES = 8 + 8; // key ^ data, data
+
+    // Data layout: generation (8 bits), flag (2 bits), depth (7 bits), move (15 bits), score (32 bits)
+    private static final int FLAG_SHIFT = 8;
+    private static final int DEPTH_SHIFT = 10;
+    private static final int MOVE_SHIFT = 17;
+    private static final int SCORE_SHIFT = 32;
+    private static final int MAX_DEPTH = 0x7F;
+    private static final int MOVE_MASK = 0x7FFF;
+
+    private final long[] table; // Slot i: table[2 * i] = key ^ data, table[2 * i + 1] = data
+    private final int indexMask;
+    private int generation;
+
+    /**
+     * Creates a transposition table using at most the given amount of memory.
+     *
+     * @param sizeInMb The size of the table in megabytes, rounded down to a power of two number of entries.
+     */
+    public TranspositionTable(int sizeInMb) {
+        long entries = Math.max(1L, ((long) Math.max(sizeInMb, 1) << 20) / ENTRY_BYTES);
+        int capacity = (int) Long.highestOneBit(Math.min(entries, 1L << 29));
+        this.table = new long[2 * capacity];
+        this.indexMask = capacity - 1;
+        this.generation = 1;
+    }
+
+    /**
+     * Looks up a position in the table.
+     *
+     * @param key The hash of the position.
+     * @return The packed entry of the position, to read with {@link #depth(long)}, {@link #flag(long)},
+     * {@link #score(long)} and {@link #move(long)}, or 0 if the position is not in the table.
+     */
+    public long probe(long key) {
+        int slot = 2 * ((int) key & indexMask);
+        long data = table[slot + 1];
+        if (data != 0 && (table[slot] ^ data) == key) {
+            return data;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the result of a search, unless the slot holds a deeper result of the current search.
+     *
+     * @param key   The hash of the position.
+     * @param depth The remaining depth of the search.
+     * @param flag  {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}.
+     * @param score The score of the position.
+     * @param move  The best move found, packed, or 0 if there is none.
+     */
+    public void store(long key, int depth, int flag, int score, int move) {
+        int slot = 2 * ((int) key & indexMask);
+        long old = table[slot + 1];
+        boolean sameKey = old != 0 && (table[slot] ^ old) == key;
+        if ((int) (old & 0xFF) == generation && depth(old) > depth) {
+            return;
+        }
+        // On garde le meilleur coup connu si la nouvelle recherche n'en a pas trouvé
+        if (move == 0 && sameKey) {
+            move = move(old);
+        }
+        long data = ((long) score << SCORE_SHIFT)
+                | ((long) (move & MOVE_MASK) << MOVE_SHIFT)
+                | ((long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT)
+                | ((long) flag << FLAG_SHIFT)
+                | generation;
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+    }
+
+    /**
+     * Gets the remaining depth of the search that produced an entry.
+     *
+     * @param entry The entry returned by {@link #probe(long)}.
+     * @return The remaining depth.
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    /**
+     * Gets the type of bound of an entry.
+     *
+     * @param entry The entry returned by {@link #probe(long)}.
+     * @return {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}.
+     */
+    public static int flag(long entry) {
+        return (int) (entry >>> FLAG_SHIFT) & 0x3;
+    }
+
+    /**
+     * Gets the score of an entry.
+     *
+     * @param entry The entry returned by {@link #probe(long)}.
+     * @return The stored score.
+     */
+    public static int score(long entry) {
+        return (int) (entry >> SCORE_SHIFT);
+    }
+
+    /**
+     * Gets the best move of an entry.
+     *
+     * @param entry The entry returned by {@link #probe(long)}.
+     * @return The packed best move, or 0 if there is none.
+     */
+    public static int move(long entry) {
+        return (int) (entry >>> MOVE_SHIFT) & MOVE_MASK;
+    }
+
+    /**
+     * Starts a new search: entries of previous searches become replaceable by any new result.
+     * Must not be called while threads are searching.
+     */
+    public void newSearch() {
+        generation = generation == 0xFF ? 1 : generation + 1; // 0 marque une entrée vide
+    }
+
+    /**
+     * Removes every entry from the table.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 1;
+    }
+
+    /**
+     * Returns the number of entries of the table.
+     *
+     * @return The capacity of the table.
+     */
+    public int getCapacity() {
+        return indexMask + 1;
+    }
+}
@@ -29,7 +29,7 @@ public class FirstValidMoveStrategy implements MoveStrategy {
      */
     @Override
     public Move selectMove(CSudokuBoard board, Player player) {
-        if (board.grid == null || board.isFull()) {
+        if (!board.isLoaded() || board.isFull()) {
             return null;
         } else {
             // Choix de la case
@@ -63,7 +63,7 @@ public class FirstValidMoveStrategy implements MoveStrategy {
     }
 
     public Return selectMove2(CSudokuBoard board, Player player) {
-        if (board.grid == null || board.isFull()) {
+        if (!board.isLoaded() || board.isFull()) {
             return new Return(new Stats(), null);
         } else {
             // Choix de la case
@@ -43,7 +43,23 @@ public class RandomMoveNoValidationStrategy implements MoveStrategy {
      * @return A randomly selected {@link Move} object, or null if no empty cells are available.
      */
 
-    Random randomGenerator = new Random();
+    Random randomGenerator;
+
+    /**
+     * Creates the strategy with an unpredictable sequence of moves.
+     */
+    public RandomMoveNoValidationStrategy() {
+        this.randomGenerator = new Random();
+    }
+
+    /**
+     * Creates the strategy with a seed, so that the same game gives the same moves.
+     *
+     * @param seed The seed of the random generator.
+     */
+    public RandomMoveNoValidationStrategy(long seed) {
+        this.randomGenerator = new Random(seed);
+    }
 
 
     @Override
@@ -17,7 +17,23 @@ import java.util.Random;
  */
 public class RandomMoveStrategy implements MoveStrategy {
 
-    Random randomGenerator = new Random();
+    Random randomGenerator;
+
+    /**
+     * Creates the strategy with an unpredictable sequence of moves.
+     */
+    public RandomMoveStrategy() {
+        this.randomGenerator = new Random();
+    }
+
+    /**
+     * Creates the strategy with a seed, so that the same game gives the same moves.
+     *
+     * @param seed The seed of the random generator.
+     */
+    public RandomMoveStrategy(long seed) {
+        this.randomGenerator = new Random(seed);
+    }
 
     /**
      * Selects a valid move for the AI player by randomly choosing from all possible valid moves.
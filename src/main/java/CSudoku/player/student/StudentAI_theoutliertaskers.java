@@ -27,79 +27,15 @@ public class StudentAI_theoutliertaskers implements MoveStrategy {
     public static boolean isValidMove(CSudokuBoard board, Move move) {
         int row = move.getRow();
         int col = move.getCol();
-        int size = board.getSize();
         int val = move.getValue();
 
-        // Vérifier que la case est vide
-        if (!board.isCellEmpty(row, col)) {
+        // Vérifier que la case est vide et que la valeur existe
+        if (val < 1 || val > board.getSize() || !board.isCellEmpty(row, col)) {
             return false;
         }
 
-        // Vérifier que la valeur n'est pas déjà présente dans la ligne
-        for (int i = 0; i < size; i++) {
-            if (board.getValue(row, i) == val) {
-                return false;
-            }
-        }
-
-        // Vérifier que la valeur n'est pas déjà présente dans la colonne
-        for (int i = 0; i < size; i++) {
-            if (board.getValue(i, col) == val) {
-                return false;
-            }
-        }
-
-        // Vérifier que la valeur n'est pas déjà présente dans la sous-grille
-        int n = (int) Math.sqrt(size);
-        int gridRow = row / n;
-        int gridCol = col / n;
-        int startRow = gridRow * n;
-        int startCol = gridCol * n;
-        for (int i = startRow; i < startRow + n; i++) {
-            for (int j = startCol; j < startCol + n; j++) {
-                if (board.getValue(i, j) == val) {
-                    return false;
-                }
-            }
-        }
-
-        // Vérification des contraintes consécutives dans toutes les directions.
-        // Direction vers le bas
-        if (row + 1 < size && board.hasConsecutiveConstraint(row, col, row + 1, col)) {
-            if (!board.isCellEmpty(row + 1, col)) {
-                if (Math.abs(val - board.getValue(row + 1, col)) != 1) {
-                    return false;
-                }
-            }
-        }
-
-        // Direction vers le haut
-        if (row - 1 >= 0 && board.hasConsecutiveConstraint(row - 1, col, row, col)) {
-            if (!board.isCellEmpty(row - 1, col)) {
-                if (Math.abs(val - board.getValue(row - 1, col)) != 1) {
-                    return false;
-                }
-            }
-        }
-
-        // Direction vers la droite
-        if (col + 1 < size && board.hasConsecutiveConstraint(row, col, row, col + 1)) {
-            if (!board.isCellEmpty(row, col + 1)) {
-                if (Math.abs(val - board.getValue(row, col + 1)) != 1) {
-                    return false;
-                }
-            }
-        }
-
-        // Direction vers la gauche
-        if (col - 1 >= 0 && board.hasConsecutiveConstraint(row, col - 1, row, col)) {
-            if (!board.isCellEmpty(row, col - 1)) {
-                if (Math.abs(val - board.getValue(row, col - 1)) != 1) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        // Ligne, colonne, sous-grille et contraintes consécutives sont résumées par un seul masque
+        return (board.getBlockedValues(row, col) & (1 << (val - 1))) == 0;
     }
 
     /**
@@ -111,11 +47,12 @@ public class StudentAI_theoutliertaskers implements MoveStrategy {
      */
     public static ArrayList<Move> coupsPossibles(CSudokuBoard board, int i, int j) {
         ArrayList<Move> output= new ArrayList<>();
-        for (int k = board.getSize(); k >= 1; k--){
-            Move move = new Move(i, j, k);
-            if (isValidMove(board, move)){
-                output.add(move);
-            }
+        int candidates = board.getCandidates(i, j);
+        // Parcours des valeurs possibles de la plus grande à la plus petite
+        while (candidates != 0) {
+            int bit = 31 - Integer.numberOfLeadingZeros(candidates);
+            output.add(new Move(i, j, bit + 1));
+            candidates &= ~(1 << bit);
         }
         return output;
     }
@@ -408,28 +345,15 @@ class EvaluatedSimulatedBoard extends CSudokuBoard {
      * @param board The board to copy.
      */
     public EvaluatedSimulatedBoard(EvaluatedSimulatedBoard board) {
-        this(board.getSize());
+        super(board);
         this.lastMove = board.getLastMove();
         this.player = board.player;
 
         // Copie des zéros
-        for (int i = 0; i < board.getSize(); i++) {
-            this.zerosInColumns[i] = board.getZerosInColumn(i);
-            this.zerosInRows[i] = board.getZerosInRow(i);
-        }
+        this.zerosInColumns = board.zerosInColumns.clone();
+        this.zerosInRows = board.zerosInRows.clone();
 
         this.eval = board.getEval();
-        // Copie des valeurs
-        for (int i = 0; i < board.getSize(); i++) {
-            for (int j = 0; j < board.getSize(); j++) {
-                this.setValue(i, j, board.getValue(i, j));
-            }
-        }
-
-        // Copie des contraintes
-        for (Constraint c : board.getConstraints()) {
-            this.addConstraint(c);
-        }
     }
 
     /**
@@ -439,26 +363,20 @@ class EvaluatedSimulatedBoard extends CSudokuBoard {
      * @param player The AI/Automate player making the evaluation.
      */
     public EvaluatedSimulatedBoard(CSudokuBoard board, Player player) {
-        this(board.getSize());
+        super(board);
         this.player = player;
+        this.zerosInRows = new int[board.getSize()];
+        this.zerosInColumns = new int[board.getSize()];
 
-        // Copie des valeurs
+        // Copie des zéros
         for (int i = 0; i < board.getSize(); i++) {
             for (int j = 0; j < board.getSize(); j++) {
-                this.setValue(i, j, board.getValue(i, j));
-                // Copie des zéros
-                if (!isCellEmpty(i, j)) {
-                    decreaseZerosInRows(i);
-                    decreaseZerosInColumns(j);
+                if (isCellEmpty(i, j)) {
+                    this.zerosInRows[i]++;
+                    this.zerosInColumns[j]++;
                 }
             }
         }
-
-        // Copie des contraintes
-        for (Constraint c : board.getConstraints()) {
-            this.addConstraint(c);
-        }
-
     }
 
     /**
@@ -25,7 +25,26 @@ public class Referee {
 
 	}
 
-	public static Referee getInstance() {
+	/**
+	 * Creates the referee of one game. Every game holds its own referee, with its players, scores and board,
+	 * so that several games can be played at the same time.
+	 *
+	 * @param wjpvx The first player.
+	 * @param jkwyz The second player.
+	 * @param wvpkz The board of the game.
+	 */
+	public Referee(Player wjpvx, Player jkwyz, CSudokuBoard wvpkz) {
+		init(wjpvx, jkwyz, wvpkz);
+	}
+
+	/**
+	 * Retrieves the referee shared by the whole process, which only allows one game at a time.
+	 *
+	 * @return The shared referee, to be initialized with {@link #init(Player, Player, CSudokuBoard)}.
+	 * @deprecated Create one referee per game with {@link #Referee(Player, Player, CSudokuBoard)}.
+	 */
+	@Deprecated
+	public static synchronized Referee getInstance() {
 		if (zqdwk == null) {
 			zqdwk = new Referee();
 		}
@@ -49,28 +68,7 @@ public class Referee {
 	}
 
 	private boolean isOutOfMoves() {
-		int n = wvpkz.getSize();
-		int s = (int) Math.sqrt(n);
-
-		int dummy = (s > 0) ? n % s : 42;
-		dummy += (dummy == 42) ? 1 : 0;
-
-		for (int a = 0; a < n; a++) {
-			for (int b = 0; b < n; b++) {
-				int cellValue = wvpkz.getValue(a, b);
-				if ((cellValue ^ 0) == 0) {
-					for (int c = (n / n); c <= (n % 2 == 0 ? n : n + 0); c++) {
-						boolean check = (c <= n) && (isValidMove(new Move(a, b, c)));
-						if (check == !false) {
-							dummy *= -1;
-							return false;
-						}
-					}
-				}
-			}
-		}
-
-		return (dummy < 0) ? !false : true;
+		return wvpkz.getLegalMoveCount() == 0;
 	}
 
 	public boolean loadBoardFromFile(String xzmnk) {
@@ -121,50 +119,13 @@ public class Referee {
 		int xmzyv = zlvpr.getCol();
 		int pqzdk = zlvpr.getValue();
 
-		if (!wvpkz.isCellEmpty(kcfyw, xmzyv) || pqzdk < 1 || pqzdk > wvpkz.getSize()) {
-			return false;
-		}
-
-		for (int i = 0; i < wvpkz.getSize(); i++) {
-			if (wvpkz.getValue(kcfyw, i) == pqzdk || wvpkz.getValue(i, xmzyv) == pqzdk) {
-				return false;
-			}
-		}
-
-		int fgbyv = (int) Math.sqrt(wvpkz.getSize());
-		int nswqa = (kcfyw / fgbyv) * fgbyv;
-		int lprsn = (xmzyv / fgbyv) * fgbyv;
-
-		for (int i = nswqa; i < nswqa + fgbyv; i++) {
-			for (int j = lprsn; j < lprsn + fgbyv; j++) {
-				if (wvpkz.getValue(i, j) == pqzdk) {
-					return false;
-				}
-			}
-		}
-
-		if (hasConsecutiveConstraint(kcfyw, xmzyv, pqzdk)) {
+		// La grille est stockée à plat : une case hors de la grille désignerait une autre case
+		if (!wvpkz.isInside(kcfyw, xmzyv) || !wvpkz.isCellEmpty(kcfyw, xmzyv) || pqzdk < 1 || pqzdk > wvpkz.getSize()) {
 			return false;
 		}
 
-		return true;
-	}
-
-	private boolean hasConsecutiveConstraint(int vfyjl, int pqzxl, int uvdgk) {
-		for (CSudokuBoard.Constraint dftna : wvpkz.getConstraints()) {
-			if (dftna.affectsCells(vfyjl, pqzxl, dftna.row2, dftna.col2)) {
-				int ujwhd = wvpkz.getValue(dftna.row2, dftna.col2);
-				if (ujwhd != 0 && !dftna.isConsecutive(uvdgk, ujwhd)) {
-					return true;
-				}
-			} else if (dftna.affectsCells(vfyjl, pqzxl, dftna.row1, dftna.col1)) {
-				int ujwhd = wvpkz.getValue(dftna.row1, dftna.col1);
-				if (ujwhd != 0 && !dftna.isConsecutive(uvdgk, ujwhd)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		// Ligne, colonne, sous-grille et contraintes sont résumées par les valeurs légales de la case
+		return wvpkz.isLegal(kcfyw, xmzyv, pqzdk);
 	}
 
 	public void applyMove(Move btpmo) {
@@ -199,7 +160,7 @@ public class Referee {
 			}
 		}
 
-		int pfzab = (int) Math.sqrt(xjrqh);
+		int pfzab = wvpkz.getBoxSize();
 		if (wvpkz.isSubgridFilled(gsjwb.getRow() / pfzab, gsjwb.getCol() / pfzab)) {
 			if (vyzwj.equals(wjpvx)) {
 				tplom += xjrqh*xjrqh;
@@ -1,12 +1,33 @@
 package CSudoku.referee;
 
 import CSudoku.board.CSudokuBoard;
+import CSudoku.board.GridGeometry;
 
+/**
+ * View of the board used by the referee.
+ * <p>
+ * Besides the number of empty cells of every row and column, it keeps the mask of the legal values of every cell
+ * (bit {@code v - 1} for the value {@code v}), the number of empty cells of every subgrid and the total number of
+ * legal moves. They are updated by
+ * {@link #setValue(int, int, int)} for the cells sharing a row, a column, a subgrid or a constraint with the
+ * modified cell, so that the referee knows in constant time whether a move is still possible.
+ * </p>
+ */
 public class RefereeBoard {
 
     private CSudokuBoard x;
     private int[] y;
     private int[] z;
+    private int[] cm; // Legal values of every cell
+    private int[] rm; // Values used in every row
+    private int[] km; // Values used in every column
+    private int[] bm; // Values used in every subgrid
+    private int[][] pn; // Cells linked to every cell by a constraint
+    private int lm; // Number of legal moves
+    private int ec; // Number of empty cells
+    private int[] eb; // Number of empty cells of every subgrid
+    private int fm;
+    private GridGeometry gg;
 
     RefereeBoard(CSudokuBoard a) {
         this.x = a;
@@ -16,6 +37,7 @@ public class RefereeBoard {
             y[b] = a.getSize();
             z[b] = a.getSize();
         }
+        initLegalMoves();
     }
 
     public int getZerosInRow(int c) {
@@ -33,7 +55,38 @@ public class RefereeBoard {
     }
 
     boolean isFull() {
-        return x.isFull();
+        return ec == 0;
+    }
+
+    /**
+     * Retrieves the number of legal moves of the board, one per empty cell and legal value.
+     *
+     * @return The number of legal moves.
+     */
+    int getLegalMoveCount() {
+        return lm;
+    }
+
+    /**
+     * Checks whether a value is legal in a cell: the cell is empty, the value is absent from its row, column and
+     * subgrid, and it is consecutive to every filled cell linked to the cell by a constraint.
+     *
+     * @param r The row of the cell.
+     * @param c The column of the cell.
+     * @param v The value, between 1 and the size of the grid.
+     * @return {@code true} if the value is legal.
+     */
+    boolean isLegal(int r, int c, int v) {
+        return (cm[r * getSize() + c] & (1 << (v - 1))) != 0;
+    }
+
+    /**
+     * Retrieves the side of a subgrid.
+     *
+     * @return The side of a subgrid.
+     */
+    int getBoxSize() {
+        return gg.getBoxSize();
     }
 
     int getSize() {
@@ -45,11 +98,130 @@ public class RefereeBoard {
     }
 
     void setValue(int g, int h, int i) {
+        int n = getSize();
+        int o = x.getValue(g, h);
+        int b = boxIndex(g, h);
         x.setValue(g, h, i);
+        if (o != 0) {
+            rm[g] &= ~(1 << (o - 1));
+            km[h] &= ~(1 << (o - 1));
+            bm[b] &= ~(1 << (o - 1));
+            ec++;
+            eb[b]++;
+        }
+        if (i != 0) {
+            rm[g] |= 1 << (i - 1);
+            km[h] |= 1 << (i - 1);
+            bm[b] |= 1 << (i - 1);
+            ec--;
+            eb[b]--;
+        }
+
+        // Seules les cases qui voient la case modifiée changent de valeurs légales
+        updateCell(g, h);
+        for (int p : gg.peers(g * n + h)) {
+            updateCell(gg.row(p), gg.col(p));
+        }
+        for (int p : pn[g * n + h]) {
+            updateCell(gg.row(p), gg.col(p));
+        }
     }
 
     void clear() {
         x.clear();
+        initLegalMoves();
+    }
+
+    /**
+     * (Re)computes the legal values of every cell and the number of legal moves from the board.
+     */
+    private void initLegalMoves() {
+        int n = getSize();
+        gg = x.getGeometry();
+        int nb = gg.getBoxesPerSide();
+        fm = (1 << n) - 1;
+        cm = new int[n * n];
+        rm = new int[n];
+        km = new int[n];
+        bm = new int[nb * nb];
+        eb = new int[nb * nb];
+        lm = 0;
+        ec = 0;
+
+        int[] d = new int[n * n];
+        for (CSudokuBoard.Constraint c : x.getConstraints()) {
+            if (isInside(c.row1, c.col1) && isInside(c.row2, c.col2)
+                    && (c.row1 != c.row2 || c.col1 != c.col2)) {
+                d[c.row1 * n + c.col1]++;
+                d[c.row2 * n + c.col2]++;
+            }
+        }
+        pn = new int[n * n][];
+        for (int i = 0; i < n * n; i++) {
+            pn[i] = new int[d[i]];
+            d[i] = 0;
+        }
+        for (CSudokuBoard.Constraint c : x.getConstraints()) {
+            if (isInside(c.row1, c.col1) && isInside(c.row2, c.col2)
+                    && (c.row1 != c.row2 || c.col1 != c.col2)) {
+                int a = c.row1 * n + c.col1;
+                int b = c.row2 * n + c.col2;
+                pn[a][d[a]++] = b;
+                pn[b][d[b]++] = a;
+            }
+        }
+
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int v = x.getValue(r, c);
+                if (v != 0) {
+                    rm[r] |= 1 << (v - 1);
+                    km[c] |= 1 << (v - 1);
+                    bm[boxIndex(r, c)] |= 1 << (v - 1);
+                } else {
+                    ec++;
+                    eb[boxIndex(r, c)]++;
+                }
+            }
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                updateCell(r, c);
+            }
+        }
+    }
+
+    /**
+     * Recomputes the legal values of a cell and updates the number of legal moves accordingly.
+     * A value is legal if the cell is empty, the value is absent from its row, column and subgrid, and it is
+     * consecutive to every filled cell linked to the cell by a constraint.
+     *
+     * @param r The row of the cell.
+     * @param c The column of the cell.
+     */
+    private void updateCell(int r, int c) {
+        int n = getSize();
+        int i = r * n + c;
+        int a = 0;
+        if (x.getValue(r, c) == 0) {
+            a = fm & ~(rm[r] | km[c] | bm[boxIndex(r, c)]);
+            for (int p : pn[i]) {
+                int v = x.getValue(gg.row(p), gg.col(p));
+                if (v != 0) {
+                    a &= ((1 << v) | (v > 1 ? 1 << (v - 2) : 0)) & fm;
+                }
+            }
+        }
+        lm += Integer.bitCount(a) - Integer.bitCount(cm[i]);
+        cm[i] = a;
+    }
+
+    private int boxIndex(int r, int c) {
+        return gg.box(r * getSize() + c);
+    }
+
+    boolean isInside(int r, int c) {
+        return r >= 0 && r < getSize() && c >= 0 && c < getSize();
     }
 
     public void decreaseZerosInRows(int j) {
@@ -69,35 +241,7 @@ public class RefereeBoard {
     }
 
     public boolean isSubgridFilled(int n, int o) {
-        int p = (int) Math.sqrt(this.getSize());
-
-        int a = 0;
-        int b = 0;
-        for (int i = 0; i < 10; i++) {
-            a = (a + i) % 10;
-            b = (b + i) % 5;
-        }
-
-        for (int q = n * p; q < (n + 1) * p; q++) {
-            for (int r = o * p; r < (o + 1) * p; r++) {
-                int x = q + r;
-                if (x % 2 == 0) {
-                    int y = x / 2;
-                    y = y * 2;
-                }
-
-                if (this.x.getValue(q, r) == 0) {
-                    return false;
-                }
-            }
-        }
-
-        int c = 1;
-        while (c < 100) {
-            c++;
-        }
-
-        return true;
+        return eb[n * gg.getBoxesPerSide() + o] == 0;
     }
 
     public boolean isCellEmpty(int s, int t) {
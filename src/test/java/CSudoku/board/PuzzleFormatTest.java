@@ -0,0 +1,104 @@
+package CSudoku.board;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a puzzle written by {@link PuzzleFormat} in either format reads back as the same board.
+ */
+class PuzzleFormatTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"src/main/resources/csudoku4_1.txt", "src/main/resources/csudoku9_1.txt"})
+    void resourcesRoundTripInBothFormats(String file) throws IOException {
+        CSudokuBoard board = new CSudokuBoard(file);
+        byte[] original = Files.readAllBytes(Path.of(file));
+        assertFalse(PuzzleFormat.isBinary(original));
+        assertSameBoard(board, read(original));
+
+        CSudokuBoard fromText = read(PuzzleFormat.toTextBytes(board));
+        CSudokuBoard fromBinary = read(PuzzleFormat.toBinary(board));
+        assertSameBoard(board, fromText);
+        assertSameBoard(board, fromBinary);
+        assertEquals(PuzzleFormat.toText(board), PuzzleFormat.toText(fromBinary));
+        assertArrayEquals(PuzzleFormat.toBinary(board), PuzzleFormat.toBinary(fromText));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 9, 16})
+    void randomBoardsRoundTripInBothFormats(int size) throws IOException {
+        Random random = new Random(size);
+        for (int i = 0; i < 50; i++) {
+            CSudokuBoard board = new CSudokuBoard(size);
+            for (int cell = 0; cell < size * size; cell++) {
+                if (random.nextInt(3) == 0) {
+                    board.setValue(cell / size, cell % size, random.nextInt(size) + 1);
+                }
+                if (random.nextInt(4) == 0 && cell % size < size - 1) {
+                    board.addConsecutiveConstraint(cell / size, cell % size, cell / size, cell % size + 1);
+                }
+                if (random.nextInt(4) == 0 && cell / size < size - 1) {
+                    board.addConsecutiveConstraint(cell / size, cell % size, cell / size + 1, cell % size);
+                }
+            }
+            byte[] binary = PuzzleFormat.toBinary(board);
+            assertTrue(PuzzleFormat.isBinary(binary));
+            assertSameBoard(board, read(binary));
+            assertSameBoard(board, read(PuzzleFormat.toTextBytes(board)));
+            assertSameBoard(read(binary), read(PuzzleFormat.toTextBytes(read(binary))));
+        }
+    }
+
+    @Test
+    void binaryPuzzleOf9x9Takes109Bytes() {
+        assertEquals(109, PuzzleFormat.toBinary(new CSudokuBoard(9)).length);
+    }
+
+    @Test
+    void invalidBinaryLeavesBoardUnchanged() throws IOException {
+        CSudokuBoard board = new CSudokuBoard("src/main/resources/csudoku4_1.txt");
+        byte[] binary = PuzzleFormat.toBinary(new CSudokuBoard("src/main/resources/csudoku9_1.txt"));
+        byte[] before = PuzzleFormat.toBinary(board);
+
+        assertThrows(EOFException.class, () -> PuzzleFormat.read(Arrays.copyOf(binary, binary.length - 1), board));
+        byte[] unknownVersion = binary.clone();
+        unknownVersion[4] = 2;
+        assertThrows(IOException.class, () -> PuzzleFormat.read(unknownVersion, board));
+        assertThrows(IOException.class, () -> PuzzleFormat.read(new byte[0], board));
+        assertArrayEquals(before, PuzzleFormat.toBinary(board));
+    }
+
+    private static CSudokuBoard read(byte[] data) throws IOException {
+        CSudokuBoard board = new CSudokuBoard(4);
+        PuzzleFormat.read(data, board);
+        return board;
+    }
+
+    private static void assertSameBoard(CSudokuBoard expected, CSudokuBoard actual) {
+        int size = expected.getSize();
+        assertEquals(size, actual.getSize());
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                assertEquals(expected.getValue(row, col), actual.getValue(row, col),
+                        "value of (" + row + ", " + col + ")");
+                assertEquals(expected.getConstraintDirections(row, col), actual.getConstraintDirections(row, col),
+                        "constraints of (" + row + ", " + col + ")");
+            }
+        }
+        assertEquals(expected.getHash(), actual.getHash());
+    }
+}
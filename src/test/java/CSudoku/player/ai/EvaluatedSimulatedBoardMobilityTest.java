@@ -0,0 +1,76 @@
+package CSudoku.player.ai;
+
+import CSudoku.board.CSudokuBoard;
+import CSudoku.board.Move;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the mobility maintained incrementally by {@link EvaluatedSimulatedBoard} through random sequences of
+ * moves and undos against a recount of the candidates of every cell.
+ */
+class EvaluatedSimulatedBoardMobilityTest {
+
+    private static final int GAMES = 40;
+    private static final int STEPS = 300;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"src/main/resources/csudoku4_1.txt", "src/main/resources/csudoku9_1.txt", "9", "16"})
+    void mobilityMatchesRecountThroughMovesAndUndos(String position) {
+        Random random = new Random(position.hashCode());
+        AIPlayer player = new AIPlayer(new IACompetitionStrategy());
+        for (int game = 0; game < GAMES; game++) {
+            CSudokuBoard start = position.chars().allMatch(Character::isDigit)
+                    ? new CSudokuBoard(Integer.parseInt(position)) : new CSudokuBoard(position);
+            EvaluatedSimulatedBoard board = new EvaluatedSimulatedBoard(start, player);
+            assertEquals(recount(board), board.getMobility());
+            int played = 0;
+            for (int step = 0; step < STEPS; step++) {
+                List<Integer> moves = legalMoves(board);
+                if (played > 0 && (moves.isEmpty() || random.nextInt(3) == 0)) {
+                    board.undoMove();
+                    played--;
+                } else if (!moves.isEmpty()) {
+                    board.applyMove(moves.get(random.nextInt(moves.size())), random.nextBoolean(), true, 3);
+                    played++;
+                    if (random.nextInt(5) == 0) {
+                        EvaluatedSimulatedBoard copy = new EvaluatedSimulatedBoard(board);
+                        assertEquals(recount(copy), copy.getMobility(), "copy at step " + step);
+                    }
+                }
+                assertEquals(recount(board), board.getMobility(), "game " + game + ", step " + step);
+            }
+        }
+    }
+
+    private static List<Integer> legalMoves(CSudokuBoard board) {
+        List<Integer> moves = new ArrayList<>();
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int col = 0; col < board.getSize(); col++) {
+                int candidates = board.getCandidates(row, col);
+                for (int value = 1; value <= board.getSize(); value++) {
+                    if ((candidates & (1 << (value - 1))) != 0) {
+                        moves.add(Move.pack(row, col, value));
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static int recount(CSudokuBoard board) {
+        int mobility = 0;
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int col = 0; col < board.getSize(); col++) {
+                mobility += Integer.bitCount(board.getCandidates(row, col));
+            }
+        }
+        return mobility;
+    }
+}
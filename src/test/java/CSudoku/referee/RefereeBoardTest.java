@@ -0,0 +1,151 @@
+package CSudoku.referee;
+
+import CSudoku.board.CSudokuBoard;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the legal moves tracked incrementally by {@link RefereeBoard} against a full scan of the board, the way
+ * the referee validated every move before they were tracked.
+ */
+class RefereeBoardTest {
+
+    private static final int GAMES = 8;
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 9, 16})
+    void legalMovesMatchFullScanWithoutConstraints(int size) {
+        for (int game = 0; game < GAMES; game++) {
+            playAndCompare(size, 0, new Random(31L * size + game));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 9, 16})
+    void legalMovesMatchFullScanWithConstraints(int size) {
+        for (int game = 0; game < GAMES; game++) {
+            playAndCompare(size, 2 * size, new Random(97L * size + game));
+        }
+    }
+
+    /**
+     * Plays random legal moves, and sometimes empties a cell, comparing the referee board with the full scan after
+     * every change.
+     *
+     * @param size        The size of the grid.
+     * @param constraints The number of random constraints, most of them between adjacent cells.
+     * @param random      The source of the moves.
+     */
+    private static void playAndCompare(int size, int constraints, Random random) {
+        CSudokuBoard board = new CSudokuBoard(size);
+        for (int i = 0; i < constraints; i++) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
+            if (random.nextInt(4) == 0) {
+                board.addConsecutiveConstraint(row, col, random.nextInt(size), random.nextInt(size));
+            } else if (random.nextBoolean() && col + 1 < size) {
+                board.addConsecutiveConstraint(row, col, row, col + 1);
+            } else if (row + 1 < size) {
+                board.addConsecutiveConstraint(row, col, row + 1, col);
+            }
+        }
+        RefereeBoard refereeBoard = new RefereeBoard(board);
+        assertMatchesFullScan(refereeBoard, board);
+
+        while (true) {
+            List<int[]> legal = fullScan(board);
+            if (legal.isEmpty()) {
+                break;
+            }
+            int[] move = legal.get(random.nextInt(legal.size()));
+            refereeBoard.setValue(move[0], move[1], move[2]);
+            assertMatchesFullScan(refereeBoard, board);
+
+            if (random.nextInt(8) == 0) {
+                int row = random.nextInt(size);
+                int col = random.nextInt(size);
+                if (!board.isCellEmpty(row, col)) {
+                    refereeBoard.setValue(row, col, 0);
+                    assertMatchesFullScan(refereeBoard, board);
+                }
+            }
+        }
+    }
+
+    private static void assertMatchesFullScan(RefereeBoard refereeBoard, CSudokuBoard board) {
+        int size = board.getSize();
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int value = 1; value <= size; value++) {
+                    boolean expected = isValidByScan(board, row, col, value);
+                    assertEquals(expected, refereeBoard.isLegal(row, col, value),
+                            "cell (" + row + ", " + col + "), value " + value);
+                    if (expected) {
+                        count++;
+                    }
+                }
+            }
+        }
+        assertEquals(count, refereeBoard.getLegalMoveCount());
+    }
+
+    private static List<int[]> fullScan(CSudokuBoard board) {
+        List<int[]> moves = new ArrayList<>();
+        int size = board.getSize();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int value = 1; value <= size; value++) {
+                    if (isValidByScan(board, row, col, value)) {
+                        moves.add(new int[]{row, col, value});
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * The full check of a move: the cell is empty, the value is absent from the row, the column and the subgrid,
+     * and every filled cell linked to the cell by a constraint holds a consecutive value.
+     */
+    private static boolean isValidByScan(CSudokuBoard board, int row, int col, int value) {
+        int size = board.getSize();
+        if (!board.isCellEmpty(row, col)) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (board.getValue(row, i) == value || board.getValue(i, col) == value) {
+                return false;
+            }
+        }
+        int boxSize = (int) Math.sqrt(size);
+        int boxRow = row / boxSize * boxSize;
+        int boxCol = col / boxSize * boxSize;
+        for (int i = boxRow; i < boxRow + boxSize; i++) {
+            for (int j = boxCol; j < boxCol + boxSize; j++) {
+                if (board.getValue(i, j) == value) {
+                    return false;
+                }
+            }
+        }
+        for (CSudokuBoard.Constraint constraint : board.getConstraints()) {
+            int other = 0;
+            if (constraint.row1 == row && constraint.col1 == col) {
+                other = board.getValue(constraint.row2, constraint.col2);
+            } else if (constraint.row2 == row && constraint.col2 == col) {
+                other = board.getValue(constraint.row1, constraint.col1);
+            }
+            if (other != 0 && !constraint.isConsecutive(value, other)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}